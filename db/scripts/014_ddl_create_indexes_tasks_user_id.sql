@@ -0,0 +1,2 @@
+CREATE INDEX tasks_user_id_created_id_idx ON tasks (user_id, created, id);
+CREATE INDEX tasks_user_id_done_created_id_idx ON tasks (user_id, done, created, id);
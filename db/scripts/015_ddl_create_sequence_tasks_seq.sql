@@ -0,0 +1,11 @@
+--liquibase formatted sql
+
+--changeset job4j:015_ddl_create_sequence_tasks_seq_postgresql dbms:postgresql
+CREATE SEQUENCE tasks_seq INCREMENT BY 50;
+SELECT setval('tasks_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM tasks), false);
+ALTER TABLE tasks ALTER COLUMN id SET DEFAULT nextval('tasks_seq');
+
+--changeset job4j:015_ddl_create_sequence_tasks_seq_h2 dbms:h2
+CREATE SEQUENCE tasks_seq INCREMENT BY 50;
+ALTER SEQUENCE tasks_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM tasks);
+ALTER TABLE tasks ALTER COLUMN id SET DEFAULT nextval('tasks_seq');
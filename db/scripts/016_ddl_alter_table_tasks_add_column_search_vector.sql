@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset job4j:016_ddl_alter_table_tasks_add_column_search_vector dbms:postgresql
+ALTER TABLE tasks ADD COLUMN search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('russian', COALESCE(description, ''))) STORED;
+CREATE INDEX tasks_search_vector_idx ON tasks USING GIN (search_vector);
@@ -0,0 +1,9 @@
+--liquibase formatted sql
+
+--changeset job4j:017_ddl_create_indexes_tasks_filter
+CREATE INDEX tasks_user_id_priority_id_created_id_idx ON tasks (user_id, priority_id, created, id);
+CREATE INDEX tasks_categories_category_id_task_id_idx ON tasks_categories (category_id, task_id);
+
+--changeset job4j:017_ddl_create_index_tasks_description_trgm dbms:postgresql
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX tasks_description_trgm_idx ON tasks USING GIN (lower(description) gin_trgm_ops);
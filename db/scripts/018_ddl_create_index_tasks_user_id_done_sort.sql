@@ -0,0 +1,11 @@
+--liquibase formatted sql
+
+-- Индекс (user_id, done, created, id) из 014 заменяется, а не дополняется: порядок сортировки DONE
+-- (done ASC, created DESC, id DESC) смешивает направления и не обслуживается им ни прямым,
+-- ни обратным просмотром. Новый индекс обслуживает и этот порядок, и все запросы старого индекса
+-- (равенство по user_id и done, затем created/id в любом направлении), поэтому второй почти
+-- такой же индекс только замедлял бы запись задач
+
+--changeset job4j:018_ddl_create_index_tasks_user_id_done_sort
+DROP INDEX tasks_user_id_done_created_id_idx;
+CREATE INDEX tasks_user_id_done_created_desc_id_desc_idx ON tasks (user_id, done, created DESC, id DESC);
@@ -0,0 +1,10 @@
+--liquibase formatted sql
+
+--changeset job4j:020_ddl_alter_table_tasks_add_column_priority_position
+ALTER TABLE tasks ADD COLUMN priority_position INT DEFAULT 2147483647;
+UPDATE tasks SET priority_position = COALESCE(
+    (SELECT p.position FROM priorities p WHERE p.id = tasks.priority_id), 2147483647
+);
+ALTER TABLE tasks ALTER COLUMN priority_position SET NOT NULL;
+CREATE INDEX tasks_user_id_priority_position_created_desc_id_desc_idx
+    ON tasks (user_id, priority_position, created DESC, id DESC);
@@ -0,0 +1,193 @@
+package ru.job4j.todo.benchmark;
+
+import liquibase.Contexts;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.LiquibaseException;
+import liquibase.resource.FileSystemResourceAccessor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import ru.job4j.todo.config.DataSourceConfig;
+import ru.job4j.todo.model.Category;
+import ru.job4j.todo.model.Priority;
+import ru.job4j.todo.model.Task;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.repository.*;
+import ru.job4j.todo.service.SimpleCategoryService;
+import ru.job4j.todo.service.SimplePriorityService;
+import ru.job4j.todo.service.SimpleTaskService;
+import ru.job4j.todo.service.SimpleTaskSuggestService;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Контекст Spring и данные для бенчмарков. БД H2 в памяти создается заново для каждого
+ * набора параметров миграциями db/master.xml (со всеми индексами рабочей БД, справочники
+ * приоритетов и категорий -- из тех же миграций) и заполняется задачами одного пользователя.
+ * Настройки Hibernate совпадают с рабочими (кэши отключены), кэши включаются параметром cache
+ */
+public class BenchmarkData {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final String CONFIG = "hibernate-benchmark.cfg.xml";
+
+    private static final String CACHE_CONFIG = "hibernate-benchmark-cache.cfg.xml";
+
+    private static final String CHANGELOG = "db/master.xml";
+
+    private static final Set<String> CATEGORY_NAMES = Set.of("Bug", "Chore");
+
+    private static final String DELETE_ADDED_TASK_CATEGORIES_QUERY
+            = "DELETE FROM tasks_categories WHERE task_id > :fLastId";
+
+    private static final String DELETE_ADDED_TASKS_QUERY = "DELETE FROM tasks WHERE id > :fLastId";
+
+    private static final String RESET_DONE_QUERY = "UPDATE tasks SET done = (MOD(id, 2) = 0)";
+
+    private static final String DROP_ALL_QUERY = "DROP ALL OBJECTS";
+
+    private final AnnotationConfigApplicationContext context;
+
+    private final User user;
+
+    private final Priority priority;
+
+    private final Set<Category> categories;
+
+    private final List<Task> tasks = new ArrayList<>();
+
+    private final int lastTaskId;
+
+    public BenchmarkData(int taskCount) {
+        this(taskCount, false);
+    }
+
+    /**
+     * Создать схему БД, поднять контекст и заполнить БД
+     *
+     * @param taskCount Количество задач. Половина задач (с четными идентификаторами) отмечается выполненными
+     * @param cache     Включить кэш второго уровня и кэш запросов Hibernate
+     */
+    public BenchmarkData(int taskCount, boolean cache) {
+        String config = cache ? CACHE_CONFIG : CONFIG;
+        migrate(config);
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource(
+                "benchmark", Map.of("hibernate.config-location", config)
+        ));
+        context.register(
+                DataSourceConfig.class,
+                HibernateCrudRepository.class,
+                HibernateTaskRepository.class,
+                HibernateUserRepository.class,
+                HibernatePriorityRepository.class,
+                HibernateCategoryRepository.class,
+                SimplePriorityService.class,
+                SimpleCategoryService.class,
+                SimpleTaskSuggestService.class,
+                SimpleTaskService.class
+        );
+        context.refresh();
+        user = new User(0, "benchmark", "benchmark", "benchmark", "UTC");
+        bean(UserRepository.class).add(user);
+        priority = bean(PriorityRepository.class).findAll().get(0);
+        categories = bean(CategoryRepository.class).findAll().stream()
+                .filter(category -> CATEGORY_NAMES.contains(category.getName()))
+                .collect(Collectors.toSet());
+        TaskRepository taskRepository = bean(TaskRepository.class);
+        LocalDateTime created = LocalDateTime.now().minusDays(1);
+        List<Task> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < taskCount; i++) {
+            chunk.add(newTask(created.plusSeconds(i), false));
+            if (chunk.size() == CHUNK_SIZE || i == taskCount - 1) {
+                taskRepository.addAll(chunk).orElseThrow();
+                tasks.addAll(chunk);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        lastTaskId = tasks.stream().mapToInt(Task::getId).max().orElse(0);
+        reset();
+    }
+
+    /**
+     * Применить миграции db/master.xml к БД из конфигурации Hibernate
+     */
+    private static void migrate(String config) {
+        Configuration configuration = new Configuration().configure(config);
+        try (Connection connection = DriverManager.getConnection(
+                configuration.getProperty(AvailableSettings.URL),
+                configuration.getProperty(AvailableSettings.USER),
+                configuration.getProperty(AvailableSettings.PASS)
+        )) {
+            Database database = DatabaseFactory.getInstance()
+                    .findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            new Liquibase(CHANGELOG, new FileSystemResourceAccessor(new File(".")), database)
+                    .update(new Contexts());
+        } catch (SQLException | LiquibaseException e) {
+            throw new IllegalStateException("Не удалось создать схему БД бенчмарка", e);
+        }
+    }
+
+    /**
+     * Вернуть задачи в исходное состояние: удалить задачи, добавленные после заполнения БД,
+     * и восстановить признак выполнения у исходных задач (в БД и у объектов из randomTask).
+     * Вызывается перед каждой итерацией бенчмарков, изменяющих задачи, чтобы количество
+     * и состояние задач не менялось от итерации к итерации
+     */
+    public void reset() {
+        bean(CrudRepository.class).run(session -> {
+            session.createNativeQuery(DELETE_ADDED_TASK_CATEGORIES_QUERY)
+                    .setParameter("fLastId", lastTaskId)
+                    .executeUpdate();
+            session.createNativeQuery(DELETE_ADDED_TASKS_QUERY).setParameter("fLastId", lastTaskId).executeUpdate();
+            session.createNativeQuery(RESET_DONE_QUERY).executeUpdate();
+        });
+        for (Task task : tasks) {
+            task.setDone(task.getId() % 2 == 0);
+        }
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Создать новую (не сохраненную) задачу пользователя бенчмарка
+     */
+    public Task newTask(LocalDateTime created, boolean done) {
+        return new Task(0, "benchmark task", created, done, user, priority, new HashSet<>(categories));
+    }
+
+    /**
+     * Получить случайную сохраненную задачу
+     */
+    public Task randomTask() {
+        return tasks.get(ThreadLocalRandom.current().nextInt(tasks.size()));
+    }
+
+    /**
+     * Удалить все объекты БД и закрыть контекст. БД в памяти живет до завершения процесса
+     * (DB_CLOSE_DELAY=-1), поэтому без удаления следующий набор данных в том же процессе
+     * (напр., при запуске JMH без отдельных процессов, -f 0) получил бы уже заполненную БД
+     */
+    public void close() {
+        bean(CrudRepository.class).run(session -> session.createNativeQuery(DROP_ALL_QUERY).executeUpdate());
+        context.close();
+    }
+}
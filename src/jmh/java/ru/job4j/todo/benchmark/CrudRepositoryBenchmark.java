@@ -0,0 +1,62 @@
+package ru.job4j.todo.benchmark;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.openjdk.jmh.annotations.*;
+import ru.job4j.todo.repository.CrudRepository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк накладных расходов HibernateCrudRepository.tx: пустая команда, простой запрос
+ * и тот же запрос в сессии Hibernate с транзакцией без участия Spring (для сравнения)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CrudRepositoryBenchmark {
+
+    private static final String COUNT_QUERY = "SELECT count(t.id) FROM Task t";
+
+    private BenchmarkData data;
+
+    private CrudRepository crudRepository;
+
+    private SessionFactory sf;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = new BenchmarkData(100);
+        crudRepository = data.bean(CrudRepository.class);
+        sf = data.bean(SessionFactory.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public Object txEmpty() {
+        return crudRepository.tx(session -> null);
+    }
+
+    @Benchmark
+    public Long txQuery() {
+        return crudRepository.tx(session -> session.createQuery(COUNT_QUERY, Long.class).uniqueResult());
+    }
+
+    @Benchmark
+    public Long plainSessionQuery() {
+        try (Session session = sf.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            Long count = session.createQuery(COUNT_QUERY, Long.class).uniqueResult();
+            transaction.commit();
+            return count;
+        }
+    }
+}
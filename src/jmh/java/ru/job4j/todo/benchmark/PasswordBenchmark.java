@@ -0,0 +1,50 @@
+package ru.job4j.todo.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.job4j.todo.service.SimplePasswordService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк стоимости входа пользователя: проверка пароля по хешу BCrypt при разной стоимости
+ * хеширования (security.password.bcrypt-strength) в пуле потоков SimplePasswordService.
+ * Запуск: mvn -Ptest,benchmark test-compile exec:exec -Djmh.args="PasswordBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"10", "11", "12"})
+    private int strength;
+
+    private SimplePasswordService passwordService;
+
+    private String hash;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        passwordService = new SimplePasswordService(strength, 4, 100, 60000);
+        hash = passwordService.hash(PASSWORD);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        passwordService.destroy();
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordService.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    public String hash() {
+        return passwordService.hash(PASSWORD);
+    }
+}
@@ -0,0 +1,79 @@
+package ru.job4j.todo.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.job4j.todo.model.Task;
+import ru.job4j.todo.repository.TaskRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк основных методов HibernateTaskRepository при разном количестве задач в БД.
+ * Перед каждой итерацией задачи возвращаются в исходное состояние (см. BenchmarkData.reset):
+ * задачи, добавленные бенчмарком add, удаляются, признаки выполнения, измененные бенчмарком update,
+ * восстанавливаются. Внутри итерации add по-прежнему увеличивает таблицу.
+ * Параметр cache=true включает кэши Hibernate (в рабочей конфигурации они отключены)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskRepositoryBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int taskCount;
+
+    @Param({"false"})
+    private boolean cache;
+
+    private BenchmarkData data;
+
+    private TaskRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = new BenchmarkData(taskCount, cache);
+        repository = data.bean(TaskRepository.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetTasks() {
+        data.reset();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public List<Task> findAll() {
+        return repository.findAll();
+    }
+
+    @Benchmark
+    public List<Task> findAllByDone() {
+        return repository.findAllByDone(true);
+    }
+
+    @Benchmark
+    public Optional<Task> findById() {
+        return repository.findById(data.randomTask().getId());
+    }
+
+    @Benchmark
+    public Optional<Task> add() {
+        return repository.add(data.newTask(LocalDateTime.now(), false));
+    }
+
+    @Benchmark
+    public boolean update() {
+        Task task = data.randomTask();
+        task.setDone(!task.isDone());
+        return repository.update(task);
+    }
+}
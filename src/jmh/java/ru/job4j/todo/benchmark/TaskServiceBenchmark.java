@@ -0,0 +1,57 @@
+package ru.job4j.todo.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.job4j.todo.service.TaskService;
+import ru.job4j.todo.util.DateFormat;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Бенчмарк SimpleTaskService.findAllViews: загрузка всех задач и построение их представлений
+ * в транзакции сервиса, с форматированием даты создания в часовом поясе пользователя.
+ * Параметр cache=true включает кэши Hibernate (в рабочей конфигурации они отключены)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskServiceBenchmark {
+
+    private static final ZoneId ZONE_ID = ZoneId.of("Europe/Moscow");
+
+    @Param({"100", "1000", "10000"})
+    private int taskCount;
+
+    @Param({"false"})
+    private boolean cache;
+
+    private BenchmarkData data;
+
+    private TaskService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = new BenchmarkData(taskCount, cache);
+        service = data.bean(TaskService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public List<String> findAllViewsFormatted() {
+        Function<Instant, String> dateFormat = DateFormat.forZone(ZONE_ID);
+        return service.findAllViews().stream()
+                .map(view -> dateFormat.apply(view.getCreated()))
+                .collect(Collectors.toList());
+    }
+}
@@ -1,19 +1,89 @@
 package ru.job4j.todo.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.hibernate.SessionFactory;
-import org.hibernate.boot.MetadataSources;
-import org.hibernate.boot.registry.StandardServiceRegistry;
-import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.hibernate5.HibernateTransactionManager;
+import org.springframework.orm.hibernate5.LocalSessionFactoryBuilder;
+import org.springframework.orm.hibernate5.SpringSessionContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import ru.job4j.todo.model.Task;
+
+import javax.sql.DataSource;
+import java.util.Properties;
 
 @Configuration
+@EnableTransactionManagement
 public class DataSourceConfig {
 
+    private final String configLocation;
+
+    public DataSourceConfig(@Value("${hibernate.config-location:hibernate.cfg.xml}") String configLocation) {
+        this.configLocation = configLocation;
+    }
+
+    /**
+     * Пул соединений с БД. Параметры подключения (driver_class, url, username, password)
+     * берутся из конфигурации Hibernate (по умолчанию hibernate.cfg.xml, другой ресурс можно указать
+     * в свойстве hibernate.config-location), параметры пула -- из свойств datasource.pool.*
+     */
     @Bean(destroyMethod = "close")
-    public SessionFactory sf() {
-        final StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
-                .configure().build();
-        return new MetadataSources(registry).buildMetadata().buildSessionFactory();
+    public HikariDataSource dataSource(
+            @Value("${datasource.pool.maximum-size:10}") int maximumSize,
+            @Value("${datasource.pool.minimum-idle:2}") int minimumIdle,
+            @Value("${datasource.pool.connection-timeout-ms:30000}") long connectionTimeout,
+            @Value("${datasource.pool.validation-timeout-ms:5000}") long validationTimeout,
+            @Value("${datasource.pool.max-lifetime-ms:1800000}") long maxLifetime
+    ) {
+        Properties settings = loadSettings();
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("todo");
+        config.setDriverClassName(settings.getProperty(AvailableSettings.DRIVER));
+        config.setJdbcUrl(settings.getProperty(AvailableSettings.URL));
+        config.setUsername(settings.getProperty(AvailableSettings.USER));
+        config.setPassword(settings.getProperty(AvailableSettings.PASS));
+        config.setMaximumPoolSize(maximumSize);
+        config.setMinimumIdle(minimumIdle);
+        config.setConnectionTimeout(connectionTimeout);
+        config.setValidationTimeout(validationTimeout);
+        config.setMaxLifetime(maxLifetime);
+        return new HikariDataSource(config);
+    }
+
+    @Bean(destroyMethod = "close")
+    public SessionFactory sf(DataSource dataSource) {
+        Properties settings = loadSettings();
+        /* Учетные данные уже переданы пулу. Если оставить их в настройках, Hibernate будет
+           запрашивать соединения через DataSource.getConnection(user, password), минуя пул */
+        settings.remove(AvailableSettings.USER);
+        settings.remove(AvailableSettings.PASS);
+        LocalSessionFactoryBuilder builder = new LocalSessionFactoryBuilder(dataSource);
+        builder.addProperties(settings);
+        builder.scanPackages(Task.class.getPackageName());
+        builder.setProperty(AvailableSettings.CURRENT_SESSION_CONTEXT_CLASS, SpringSessionContext.class.getName());
+        return builder.buildSessionFactory();
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(SessionFactory sf, DataSource dataSource) {
+        HibernateTransactionManager transactionManager = new HibernateTransactionManager();
+        transactionManager.setSessionFactory(sf);
+        transactionManager.setDataSource(dataSource);
+        return transactionManager;
+    }
+
+    /**
+     * Прочитать настройки Hibernate из ресурса configLocation. Элементы mapping ресурса не используются:
+     * классы модели находятся сканированием пакета
+     */
+    private Properties loadSettings() {
+        Properties settings = new Properties();
+        settings.putAll(new org.hibernate.cfg.Configuration().configure(configLocation).getProperties());
+        return settings;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package ru.job4j.todo.config;
+
+import io.micrometer.core.instrument.Tags;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Метрики Hibernate (открытые/закрытые сессии, успешные/откаченные транзакции, запросы, кэш)
+     * в реестре Micrometer. Требует hibernate.generate_statistics = true
+     */
+    @Bean
+    public HibernateMetrics hibernateMetrics(SessionFactory sf) {
+        return new HibernateMetrics(sf, "todo", Tags.empty());
+    }
+}
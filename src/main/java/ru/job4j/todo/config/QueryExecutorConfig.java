@@ -0,0 +1,37 @@
+package ru.job4j.todo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.job4j.todo.util.QueryExecutor;
+
+@Configuration
+public class QueryExecutorConfig {
+
+    /**
+     * Исполнитель обработчиков запросов к задачам. При tasks.async.enabled = true обработчики выполняются
+     * в пуле из tasks.async.threads потоков с очередью tasks.async.queue-capacity. Иначе -- в потоке
+     * сервлет-контейнера. Пул потоков должен быть меньше пула соединений с БД (datasource.pool.maximum-size):
+     * тем же пулом соединений пользуются хранилище HTTP-сессий, вход пользователей, импорт и экспорт,
+     * и занятые обработчиками задач соединения не должны задерживать их
+     *
+     * @throws IllegalStateException Если пул потоков не меньше пула соединений
+     */
+    @Bean(destroyMethod = "close")
+    public QueryExecutor queryExecutor(
+            @Value("${tasks.async.enabled:false}") boolean enabled,
+            @Value("${tasks.async.threads:6}") int threads,
+            @Value("${tasks.async.queue-capacity:200}") int queueCapacity,
+            @Value("${datasource.pool.maximum-size:10}") int poolSize
+    ) {
+        if (!enabled) {
+            return new QueryExecutor();
+        }
+        if (threads >= poolSize) {
+            throw new IllegalStateException(String.format(
+                    "tasks.async.threads (%d) должно быть меньше datasource.pool.maximum-size (%d)", threads, poolSize
+            ));
+        }
+        return new QueryExecutor(threads, queueCapacity);
+    }
+}
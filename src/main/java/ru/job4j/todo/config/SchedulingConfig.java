@@ -0,0 +1,13 @@
+package ru.job4j.todo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Включает выполнение методов с аннотацией Scheduled (напр., периодическое перестроение
+ * индекса подсказок в SimpleTaskSuggestService)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,76 @@
+package ru.job4j.todo.config;
+
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.session.MapSessionRepository;
+import org.springframework.session.config.SessionRepositoryCustomizer;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.session.jdbc.config.annotation.web.http.EnableJdbcHttpSession;
+import ru.job4j.todo.util.SessionAttributeSerializer;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Хранилище HTTP-сессий, заменяющее сессии контейнера сервлетов (Spring Session).
+ * Реализация выбирается свойством session.store:
+ * jdbc (по умолчанию) -- таблицы spring_session* в общей БД, сессии доступны всем узлам приложения
+ * и переживают их перезапуск; memory -- сессии в памяти процесса (для тестов и локального запуска)
+ */
+@Configuration
+public class SessionConfig {
+
+    /**
+     * Сериализация атрибутов сессии в хранилище JDBC (см. SessionAttributeSerializer)
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "session.store", havingValue = "jdbc", matchIfMissing = true)
+    @EnableJdbcHttpSession
+    public static class JdbcSessionConfig implements BeanClassLoaderAware {
+
+        private ClassLoader classLoader;
+
+        @Override
+        public void setBeanClassLoader(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+        }
+
+        @Bean("springSessionConversionService")
+        public ConversionService springSessionConversionService() {
+            SessionAttributeSerializer serializer = new SessionAttributeSerializer(classLoader);
+            GenericConversionService conversionService = new GenericConversionService();
+            conversionService.addConverter(Object.class, byte[].class, new SerializingConverter(serializer));
+            conversionService.addConverter(byte[].class, Object.class, new DeserializingConverter(serializer));
+            return conversionService;
+        }
+
+        @Bean
+        public SessionRepositoryCustomizer<JdbcIndexedSessionRepository> sessionRepositoryCustomizer(
+                @Value("${session.max-inactive-interval-seconds:1800}") int maxInactiveInterval
+        ) {
+            return repository -> repository.setDefaultMaxInactiveInterval(maxInactiveInterval);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "session.store", havingValue = "memory")
+    @EnableSpringHttpSession
+    public static class MemorySessionConfig {
+
+        @Bean
+        public MapSessionRepository sessionRepository(
+                @Value("${session.max-inactive-interval-seconds:1800}") int maxInactiveInterval
+        ) {
+            MapSessionRepository repository = new MapSessionRepository(new ConcurrentHashMap<>());
+            repository.setDefaultMaxInactiveInterval(maxInactiveInterval);
+            return repository;
+        }
+    }
+}
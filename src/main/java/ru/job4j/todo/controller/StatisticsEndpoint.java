@@ -0,0 +1,59 @@
+package ru.job4j.todo.controller;
+
+import lombok.AllArgsConstructor;
+import net.jcip.annotations.ThreadSafe;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import ru.job4j.todo.service.StatisticsService;
+
+import java.util.Map;
+
+/**
+ * Служебная статистика (кэш Hibernate, пул соединений, самые долгие запросы) в виде endpoint
+ * Spring Boot Actuator: /actuator/dbstats/cache, /actuator/dbstats/pool, /actuator/dbstats/queries?top=N.
+ * Статистика содержит тексты запросов HQL и внутренние параметры пула, поэтому endpoint не открыт
+ * по умолчанию. Открывать его следует только на отдельном порту управления (management.server.port),
+ * недоступном пользователям приложения, добавив dbstats в management.endpoints.web.exposure.include
+ */
+@Component
+@ThreadSafe
+@AllArgsConstructor
+@Endpoint(id = "dbstats")
+public class StatisticsEndpoint {
+
+    private static final int DEFAULT_TOP = 20;
+
+    private final StatisticsService statisticsService;
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        return Map.of(
+                "cache", statisticsService.cacheStatistics(),
+                "pool", statisticsService.poolStatistics()
+        );
+    }
+
+    /**
+     * Получить раздел статистики
+     *
+     * @param section Раздел: cache, pool или queries
+     * @param top     Количество запросов для раздела queries
+     * @return Статистика раздела. null (ответ 404), если раздел неизвестен
+     */
+    @ReadOperation
+    public Object section(@Selector String section, @Nullable Integer top) {
+        switch (section) {
+            case "cache":
+                return statisticsService.cacheStatistics();
+            case "pool":
+                return statisticsService.poolStatistics();
+            case "queries":
+                return statisticsService.topQueries(top == null ? DEFAULT_TOP : top);
+            default:
+                return null;
+        }
+    }
+}
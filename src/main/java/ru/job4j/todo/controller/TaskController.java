@@ -2,22 +2,37 @@ package ru.job4j.todo.controller;
 
 import lombok.AllArgsConstructor;
 import net.jcip.annotations.ThreadSafe;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+import ru.job4j.todo.dto.Page;
+import ru.job4j.todo.dto.TaskCursor;
+import ru.job4j.todo.dto.TaskFilter;
+import ru.job4j.todo.dto.TaskSuggestion;
+import ru.job4j.todo.dto.TaskView;
+import ru.job4j.todo.dto.UserPrincipal;
 import ru.job4j.todo.model.Task;
 import ru.job4j.todo.model.User;
+import ru.job4j.todo.repository.TaskSort;
 import ru.job4j.todo.service.CategoryService;
 import ru.job4j.todo.service.PriorityService;
 import ru.job4j.todo.service.TaskService;
+import ru.job4j.todo.service.TaskSuggestService;
 import ru.job4j.todo.util.DateFormat;
+import ru.job4j.todo.util.QueryExecutor;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 @Controller
 @ThreadSafe
@@ -25,32 +40,103 @@ import java.util.Optional;
 @RequestMapping("/tasks")
 public class TaskController {
 
+    private static final String DEFAULT_PAGE_SIZE = "20";
+
+    private static final String DEFAULT_SUGGEST_LIMIT = "10";
+
+    private static final String DEFAULT_SORT = "CREATED_DESC";
+
     private final TaskService taskService;
     private final PriorityService priorityService;
     private final CategoryService categoryService;
+    private final TaskSuggestService suggestService;
+    private final QueryExecutor queryExecutor;
 
     @GetMapping("")
-    public String index(Model model, HttpServletRequest request) {
-        List<Task> tasks = taskService.findAll(getCurrentUserZoneId(request));
-        model.addAttribute("tasks", tasks);
-        model.addAttribute("dateFormat", DateFormat.defaultFormatter());
-        return "tasks/index";
+    public CompletableFuture<String> index(
+            @ModelAttribute("filter") TaskFilter filter,
+            @RequestParam(value = "sort", defaultValue = DEFAULT_SORT) TaskSort sort,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size,
+            Model model,
+            HttpServletRequest request
+    ) {
+        UserPrincipal principal = getCurrentPrincipal(request);
+        return async(() -> {
+            Page<TaskView> page = taskService.findPageByUser(
+                    principal.toUser(), principal.getZoneId(), filter, sort, TaskCursor.parse(cursor), size
+            );
+            addPageAttributes(model, page, filterUrl(filter, sort), size, principal);
+            model.addAttribute("sort", sort);
+            model.addAttribute("priorities", priorityService.findAll());
+            model.addAttribute("categories", categoryService.findAll());
+            return "tasks/index";
+        });
     }
 
     @GetMapping("/completed")
-    public String completedIndex(Model model, HttpServletRequest request) {
-        List<Task> tasks = taskService.findAllByDone(true, getCurrentUserZoneId(request));
-        model.addAttribute("tasks", tasks);
-        model.addAttribute("dateFormat", DateFormat.defaultFormatter());
-        return "tasks/index";
+    public CompletableFuture<String> completedIndex(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size,
+            Model model,
+            HttpServletRequest request
+    ) {
+        UserPrincipal principal = getCurrentPrincipal(request);
+        return async(() -> {
+            Page<TaskView> page = taskService.findPageByUserAndDone(
+                    principal.toUser(), true, TaskCursor.parse(cursor), size
+            );
+            addPageAttributes(model, page, "/tasks/completed", size, principal);
+            return "tasks/index";
+        });
     }
 
     @GetMapping("/incomplete")
-    public String incompleteIndex(Model model, HttpServletRequest request) {
-        List<Task> tasks = taskService.findAllByDone(false, getCurrentUserZoneId(request));
-        model.addAttribute("tasks", tasks);
-        model.addAttribute("dateFormat", DateFormat.defaultFormatter());
-        return "tasks/index";
+    public CompletableFuture<String> incompleteIndex(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size,
+            Model model,
+            HttpServletRequest request
+    ) {
+        UserPrincipal principal = getCurrentPrincipal(request);
+        return async(() -> {
+            Page<TaskView> page = taskService.findPageByUserAndDone(
+                    principal.toUser(), false, TaskCursor.parse(cursor), size
+            );
+            addPageAttributes(model, page, "/tasks/incomplete", size, principal);
+            return "tasks/index";
+        });
+    }
+
+    @GetMapping("/search")
+    public CompletableFuture<String> search(
+            @RequestParam(value = "q", defaultValue = "") String query,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size,
+            Model model,
+            HttpServletRequest request
+    ) {
+        UserPrincipal principal = getCurrentPrincipal(request);
+        return async(() -> {
+            Page<TaskView> page = taskService.searchByUser(principal.toUser(), query, parseOffset(cursor), size);
+            String pageUrl = UriComponentsBuilder.fromPath("/tasks/search")
+                    .queryParam("q", query)
+                    .encode()
+                    .toUriString();
+            addPageAttributes(model, page, pageUrl, size, principal);
+            model.addAttribute("query", query);
+            return "tasks/index";
+        });
+    }
+
+    @GetMapping("/suggest")
+    @ResponseBody
+    public List<TaskSuggestion> suggest(
+            @RequestParam(value = "q", defaultValue = "") String query,
+            @RequestParam(value = "limit", defaultValue = DEFAULT_SUGGEST_LIMIT) int limit,
+            HttpServletRequest request
+    ) {
+        return suggestService.suggest(getCurrentUser(request), query, limit);
     }
 
     @GetMapping("/new")
@@ -62,103 +148,186 @@ public class TaskController {
     }
 
     @PostMapping("/create")
-    public String store(
+    public CompletableFuture<String> store(
             @ModelAttribute("task") Task task,
             @RequestParam("priorityId") int priorityId,
             @RequestParam("categoryIds") int[] categoryIds,
             HttpServletRequest request,
             RedirectAttributes redirectAttributes
     ) {
-        HttpSession httpSession = request.getSession();
-        try {
-            taskService.add(task, priorityId, categoryIds, (User) httpSession.getAttribute("user"));
-        } catch (IllegalArgumentException e) {
-            redirectAttributes.addFlashAttribute(
-                    "errorMessage",
-                    String.format("Не удалось создать новую задачу. Причина: %s", e.getMessage())
-            );
-            return "redirect:/tasks/new";
-        }
-        return "redirect:/tasks";
+        User user = getCurrentUser(request);
+        return async(() -> {
+            try {
+                taskService.add(task, priorityId, categoryIds, user);
+            } catch (IllegalArgumentException e) {
+                redirectAttributes.addFlashAttribute(
+                        "errorMessage",
+                        String.format("Не удалось создать новую задачу. Причина: %s", e.getMessage())
+                );
+                return "redirect:/tasks/new";
+            }
+            return "redirect:/tasks";
+        });
     }
 
     @GetMapping("/{id}")
-    public String view(
+    public CompletableFuture<String> view(
             @PathVariable("id") int id,
             Model model,
             HttpServletRequest request,
             RedirectAttributes redirectAttributes
     ) {
-        Optional<Task> task = taskService.findById(id, getCurrentUserZoneId(request));
-        if (task.isEmpty()) {
-            redirectAttributes.addFlashAttribute("errorMessage", "Задача не найдена");
-            return "redirect:/tasks";
-        }
-        model.addAttribute("task", task.get());
-        model.addAttribute("dateFormat", DateFormat.defaultFormatter());
-        return "tasks/view";
+        ZoneId zoneId = getCurrentUserZoneId(request);
+        return async(() -> {
+            Optional<TaskView> task = taskService.findViewById(id);
+            if (task.isEmpty()) {
+                redirectAttributes.addFlashAttribute("errorMessage", "Задача не найдена");
+                return "redirect:/tasks";
+            }
+            model.addAttribute("task", task.get());
+            model.addAttribute("dateFormat", DateFormat.forZone(zoneId));
+            return "tasks/view";
+        });
     }
 
     @PatchMapping("/{id}/complete")
-    public String complete(@PathVariable("id") int id, RedirectAttributes redirectAttributes) {
-        if (taskService.completeById(id)) {
-            redirectAttributes.addFlashAttribute("successMessage", "Задача отмечена как завершенная");
-        } else {
-            redirectAttributes.addFlashAttribute("errorMessage", "Не удалось обновить статус задачи");
-        }
-        return "redirect:/tasks";
+    public CompletableFuture<String> complete(@PathVariable("id") int id, RedirectAttributes redirectAttributes) {
+        return async(() -> {
+            if (taskService.completeById(id)) {
+                redirectAttributes.addFlashAttribute("successMessage", "Задача отмечена как завершенная");
+            } else {
+                redirectAttributes.addFlashAttribute("errorMessage", "Не удалось обновить статус задачи");
+            }
+            return "redirect:/tasks";
+        });
     }
 
     @GetMapping("/{id}/edit")
-    public String edit(@PathVariable("id") int id, Model model, RedirectAttributes redirectAttributes) {
-        Optional<Task> task = taskService.findById(id);
-        if (task.isEmpty()) {
-            redirectAttributes.addFlashAttribute("errorMessage", "Задача не найдена");
-            return "redirect:/tasks";
-        }
-        model.addAttribute("task", task.get());
-        model.addAttribute("priorities", priorityService.findAll());
-        model.addAttribute("categories", categoryService.findAll());
-        return "tasks/edit";
+    public CompletableFuture<String> edit(
+            @PathVariable("id") int id,
+            Model model,
+            RedirectAttributes redirectAttributes
+    ) {
+        return async(() -> {
+            Optional<Task> task = taskService.findForEditById(id);
+            if (task.isEmpty()) {
+                redirectAttributes.addFlashAttribute("errorMessage", "Задача не найдена");
+                return "redirect:/tasks";
+            }
+            model.addAttribute("task", task.get());
+            model.addAttribute("priorities", priorityService.findAll());
+            model.addAttribute("categories", categoryService.findAll());
+            return "tasks/edit";
+        });
     }
 
     @PatchMapping("/{id}")
-    public String patch(
+    public CompletableFuture<String> patch(
             @ModelAttribute("task") Task task,
             @PathVariable("id") int id,
             @RequestParam("priorityId") int priorityId,
             @RequestParam("categoryIds") int[] categoryIds,
             RedirectAttributes redirectAttributes
     ) {
-        try {
-            if (taskService.update(id, task.getDescription(), priorityId, categoryIds)) {
-                redirectAttributes.addFlashAttribute("successMessage", "Задача обновлена");
+        return async(() -> {
+            try {
+                if (taskService.update(id, task.getDescription(), priorityId, categoryIds)) {
+                    redirectAttributes.addFlashAttribute("successMessage", "Задача обновлена");
+                } else {
+                    redirectAttributes.addFlashAttribute("errorMessage", "Не удалось обновить задачу");
+                }
+            } catch (IllegalArgumentException e) {
+                redirectAttributes.addFlashAttribute(
+                        "errorMessage",
+                        String.format("Не удалось обновить задачу. Причина: %s", e.getMessage())
+                );
+                return String.format("redirect:/tasks/%d/edit", id);
+            }
+            return "redirect:/tasks";
+        });
+    }
+
+    @DeleteMapping("/{id}")
+    public CompletableFuture<String> delete(@PathVariable("id") int id, RedirectAttributes redirectAttributes) {
+        return async(() -> {
+            if (taskService.deleteById(id)) {
+                redirectAttributes.addFlashAttribute("successMessage", "Задача удалена");
             } else {
-                redirectAttributes.addFlashAttribute("errorMessage", "Не удалось обновить задачу");
+                redirectAttributes.addFlashAttribute("errorMessage", "Не удалось удалить задачу");
             }
-        } catch (IllegalArgumentException e) {
-            redirectAttributes.addFlashAttribute(
-                    "errorMessage",
-                    String.format("Не удалось обновить задачу. Причина: %s", e.getMessage())
-            );
-            return String.format("redirect:/tasks/%d/edit", id);
+            return "redirect:/tasks";
+        });
+    }
+
+    private void addPageAttributes(
+            Model model, Page<TaskView> page, String pageUrl, int size, UserPrincipal principal
+    ) {
+        model.addAttribute("tasks", page.getItems());
+        model.addAttribute("page", page);
+        model.addAttribute("pageUrl", pageUrl);
+        model.addAttribute("pageSize", size);
+        model.addAttribute("dateFormat", DateFormat.forZone(principal.getZoneId()));
+    }
+
+    private static String filterUrl(TaskFilter filter, TaskSort sort) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromPath("/tasks");
+        if (sort != TaskSort.valueOf(DEFAULT_SORT)) {
+            builder.queryParam("sort", sort);
         }
-        return "redirect:/tasks";
+        if (filter.getDone() != null) {
+            builder.queryParam("done", filter.getDone());
+        }
+        if (filter.getPriorityIds() != null) {
+            filter.getPriorityIds().forEach(id -> builder.queryParam("priorityIds", id));
+        }
+        if (filter.getCategoryIds() != null) {
+            filter.getCategoryIds().forEach(id -> builder.queryParam("categoryIds", id));
+        }
+        if (filter.getCreatedFrom() != null) {
+            builder.queryParam("createdFrom", filter.getCreatedFrom());
+        }
+        if (filter.getCreatedTo() != null) {
+            builder.queryParam("createdTo", filter.getCreatedTo());
+        }
+        if (filter.getText() != null && !filter.getText().isBlank()) {
+            builder.queryParam("text", filter.getText());
+        }
+        return builder.encode().toUriString();
     }
 
-    @DeleteMapping("/{id}")
-    public String delete(@PathVariable("id") int id, RedirectAttributes redirectAttributes) {
-        if (taskService.deleteById(id)) {
-            redirectAttributes.addFlashAttribute("successMessage", "Задача удалена");
-        } else {
-            redirectAttributes.addFlashAttribute("errorMessage", "Не удалось удалить задачу");
+    private static int parseOffset(String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            return 0;
         }
-        return "redirect:/tasks";
+    }
+
+    /**
+     * Выполнить обработчик, обращающийся к БД, в исполнителе запросов (см. QueryExecutor).
+     * Данные HTTP-сессии должны быть прочитаны до вызова
+     */
+    private CompletableFuture<String> async(Supplier<String> handler) {
+        try {
+            return queryExecutor.supply(handler);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Сервер перегружен", e);
+        }
+    }
+
+    private UserPrincipal getCurrentPrincipal(HttpServletRequest request) {
+        HttpSession httpSession = request.getSession(false);
+        return (UserPrincipal) httpSession.getAttribute(UserPrincipal.SESSION_ATTRIBUTE);
+    }
+
+    private User getCurrentUser(HttpServletRequest request) {
+        return getCurrentPrincipal(request).toUser();
     }
 
     private ZoneId getCurrentUserZoneId(HttpServletRequest request) {
-        HttpSession httpSession = request.getSession();
-        User user = (User) httpSession.getAttribute("user");
-        return ZoneId.of(user.getUserZone());
+        return getCurrentPrincipal(request).getZoneId();
     }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package ru.job4j.todo.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import net.jcip.annotations.ThreadSafe;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import ru.job4j.todo.dto.ImportReport;
+import ru.job4j.todo.dto.UserPrincipal;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.service.TaskExportService;
+import ru.job4j.todo.service.TaskImportService;
+import ru.job4j.todo.transfer.TaskFormat;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@ThreadSafe
+@AllArgsConstructor
+@RequestMapping("/tasks")
+public class TaskTransferController {
+
+    private final TaskImportService taskImportService;
+    private final TaskExportService taskExportService;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ImportReport importTasks(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body,
+            HttpServletRequest request
+    ) throws IOException {
+        TaskFormat format = TaskFormat.ofContentType(contentType)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE));
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try {
+            return taskImportService.importTasks(format.reader(reader, objectMapper), getCurrentUser(request));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/export")
+    public void exportTasks(
+            @RequestParam(value = "format", defaultValue = "csv") String extension,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        TaskFormat format = TaskFormat.ofExtension(extension)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Неизвестный формат"));
+        User user = getCurrentUser(request);
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(
+                HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks." + format.getExtension() + "\""
+        );
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        taskExportService.exportTasks(format.writer(writer, objectMapper), user);
+        writer.flush();
+    }
+
+    private User getCurrentUser(HttpServletRequest request) {
+        UserPrincipal principal = (UserPrincipal) request.getSession(false)
+                .getAttribute(UserPrincipal.SESSION_ATTRIBUTE);
+        return principal.toUser();
+    }
+}
@@ -2,20 +2,25 @@ package ru.job4j.todo.controller;
 
 import lombok.AllArgsConstructor;
 import net.jcip.annotations.ThreadSafe;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import ru.job4j.todo.dto.UserPrincipal;
 import ru.job4j.todo.model.User;
+import ru.job4j.todo.service.LoginThrottleService;
 import ru.job4j.todo.service.UserService;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import java.util.ArrayList;
 import java.util.Optional;
 import java.util.TimeZone;
+import java.util.concurrent.RejectedExecutionException;
 
 @Controller
 @ThreadSafe
@@ -24,6 +29,8 @@ public class UserController {
 
     private final UserService userService;
 
+    private final LoginThrottleService loginThrottleService;
+
     @GetMapping("/users/register")
     public String registrationPage(Model model) {
         model.addAttribute("user", new User());
@@ -36,8 +43,13 @@ public class UserController {
     }
 
     @PostMapping("/users/register")
-    public String register(@ModelAttribute User user) {
-        userService.register(user);
+    public String register(@ModelAttribute User user, RedirectAttributes redirectAttributes) {
+        try {
+            userService.register(user);
+        } catch (RejectedExecutionException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Сервер перегружен, повторите регистрацию позже");
+            return "redirect:/users/register";
+        }
         return "redirect:/";
     }
 
@@ -47,14 +59,32 @@ public class UserController {
     }
 
     @PostMapping("/login")
-    public String login(@ModelAttribute User user, HttpServletRequest req, RedirectAttributes redirectAttributes) {
-        Optional<User> userInDb = userService.findByLoginAndPassword(user.getLogin(), user.getPassword());
+    public String login(
+            @ModelAttribute User user,
+            Model model,
+            HttpServletRequest req,
+            HttpServletResponse res,
+            RedirectAttributes redirectAttributes
+    ) {
+        /* Отклоненная попытка не создает HTTP-сессию для flash-атрибута, чтобы не нагружать хранилище сессий */
+        if (!loginThrottleService.tryAcquire(user.getLogin(), req.getRemoteAddr())) {
+            res.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            model.addAttribute("errorMessage", "Слишком много попыток входа, повторите позже");
+            return "users/login";
+        }
+        Optional<User> userInDb;
+        try {
+            userInDb = userService.findByLoginAndPassword(user.getLogin(), user.getPassword());
+        } catch (RejectedExecutionException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Сервер перегружен, повторите вход позже");
+            return "redirect:/login";
+        }
         if (userInDb.isEmpty()) {
             redirectAttributes.addFlashAttribute("errorMessage", "Ошибка авторизации");
             return "redirect:/login";
         }
         HttpSession session = req.getSession();
-        session.setAttribute("user", userInDb.get());
+        session.setAttribute(UserPrincipal.SESSION_ATTRIBUTE, UserPrincipal.of(userInDb.get()));
         return "redirect:/";
     }
 
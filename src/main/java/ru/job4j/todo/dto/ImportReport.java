@@ -0,0 +1,37 @@
+package ru.job4j.todo.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Отчет об импорте задач
+ */
+@Data
+public class ImportReport {
+
+    private static final int MAX_ERRORS = 100;
+
+    private int read;
+
+    private int imported;
+
+    private int rejected;
+
+    private int chunks;
+
+    private final List<String> errors = new ArrayList<>();
+
+    /**
+     * Добавить сообщение об ошибке. Сохраняются только первые MAX_ERRORS сообщений,
+     * чтобы отчет об импорте большого некорректного файла оставался небольшим
+     *
+     * @param error Сообщение об ошибке
+     */
+    public void addError(String error) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(error);
+        }
+    }
+}
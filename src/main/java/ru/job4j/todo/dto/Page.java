@@ -0,0 +1,25 @@
+package ru.job4j.todo.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Одна страница выборки с курсором для получения следующей страницы
+ *
+ * @param <T> Тип элементов страницы
+ */
+@Value
+public class Page<T> {
+
+    List<T> items;
+
+    /**
+     * Курсор следующей страницы. null, если текущая страница -- последняя
+     */
+    String nextCursor;
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
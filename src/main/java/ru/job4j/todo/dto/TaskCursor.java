@@ -0,0 +1,80 @@
+package ru.job4j.todo.dto;
+
+import lombok.Value;
+import ru.job4j.todo.model.Task;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Курсор постраничной выборки задач по ключу ([rank,] created, id).
+ * Указывает на последнюю задачу предыдущей страницы
+ */
+@Value
+public class TaskCursor {
+
+    private static final String DELIMITER = "_";
+
+    /**
+     * Значение дополнительного ключа сортировки (см. TaskSort). null, если порядок его не использует
+     */
+    String rank;
+
+    LocalDateTime created;
+
+    int id;
+
+    public TaskCursor(String rank, LocalDateTime created, int id) {
+        this.rank = rank;
+        this.created = created;
+        this.id = id;
+    }
+
+    public TaskCursor(LocalDateTime created, int id) {
+        this(null, created, id);
+    }
+
+    /**
+     * Создать курсор, указывающий на передаваемую задачу
+     *
+     * @param task Последняя задача страницы
+     * @return Курсор
+     */
+    public static TaskCursor of(Task task) {
+        return new TaskCursor(task.getCreated(), task.getId());
+    }
+
+    /**
+     * Разобрать курсор из строкового представления
+     *
+     * @param value Строковое представление курсора, полученное из {@link #encode()}
+     * @return Курсор. null, если значение отсутствует или некорректно
+     */
+    public static TaskCursor parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String[] parts = value.split(DELIMITER, -1);
+        if (parts.length < 2 || parts.length > 3) {
+            return null;
+        }
+        try {
+            return new TaskCursor(
+                    parts.length == 3 ? parts[0] : null,
+                    LocalDateTime.parse(parts[parts.length - 2]),
+                    Integer.parseInt(parts[parts.length - 1])
+            );
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Получить строковое представление курсора для передачи в параметрах запроса
+     *
+     * @return Строковое представление курсора
+     */
+    public String encode() {
+        return (rank == null ? "" : rank + DELIMITER) + created + DELIMITER + id;
+    }
+}
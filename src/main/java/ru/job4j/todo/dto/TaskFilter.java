@@ -0,0 +1,78 @@
+package ru.job4j.todo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Фильтр списка задач. Незаполненные критерии не ограничивают выборку,
+ * заполненные объединяются условием И
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskFilter {
+
+    /**
+     * Признак выполнения задачи. null -- любые задачи
+     */
+    private Boolean done;
+
+    /**
+     * Идентификаторы приоритетов. Задача подходит, если ее приоритет -- один из перечисленных
+     */
+    private Set<Integer> priorityIds = new HashSet<>();
+
+    /**
+     * Идентификаторы категорий. Задача подходит, если у нее есть хотя бы одна из перечисленных категорий
+     */
+    private Set<Integer> categoryIds = new HashSet<>();
+
+    /**
+     * Первый день периода создания задач (включительно) в часовом поясе пользователя
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate createdFrom;
+
+    /**
+     * Последний день периода создания задач (включительно) в часовом поясе пользователя
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate createdTo;
+
+    /**
+     * Слова, каждое из которых должно входить в описание задачи
+     */
+    private String text;
+
+    /**
+     * Получить начало периода создания задач (включительно) во времени хранения задач
+     *
+     * @param userZone Часовой пояс пользователя
+     * @return Начало периода. null, если начало периода не задано
+     */
+    public LocalDateTime createdFromTime(ZoneId userZone) {
+        return createdFrom == null ? null : toStorageTime(createdFrom, userZone);
+    }
+
+    /**
+     * Получить конец периода создания задач (не включительно) во времени хранения задач
+     *
+     * @param userZone Часовой пояс пользователя
+     * @return Конец периода. null, если конец периода не задан
+     */
+    public LocalDateTime createdToTime(ZoneId userZone) {
+        return createdTo == null ? null : toStorageTime(createdTo.plusDays(1), userZone);
+    }
+
+    private static LocalDateTime toStorageTime(LocalDate date, ZoneId userZone) {
+        return date.atStartOfDay(userZone).withZoneSameInstant(TaskView.STORAGE_ZONE).toLocalDateTime();
+    }
+}
@@ -0,0 +1,20 @@
+package ru.job4j.todo.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Задача в формате импорта/экспорта. Приоритет и категории задаются по названиям
+ */
+@Value
+public class TaskRecord {
+
+    String description;
+
+    String priority;
+
+    List<String> categories;
+
+    boolean done;
+}
@@ -0,0 +1,22 @@
+package ru.job4j.todo.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка списка задач, получаемая проекцией (выражением-конструктором HQL) без загрузки сущностей
+ */
+@Value
+public class TaskRow {
+
+    int id;
+
+    String description;
+
+    LocalDateTime created;
+
+    boolean done;
+
+    String priorityName;
+}
@@ -0,0 +1,14 @@
+package ru.job4j.todo.dto;
+
+import lombok.Value;
+
+/**
+ * Задача, найденная по префиксам слов для подсказок при вводе
+ */
+@Value
+public class TaskSuggestion {
+
+    int id;
+
+    String description;
+}
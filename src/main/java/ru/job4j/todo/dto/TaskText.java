@@ -0,0 +1,20 @@
+package ru.job4j.todo.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Индексируемый текст задачи: описание и названия категорий
+ */
+@Value
+public class TaskText {
+
+    int id;
+
+    int userId;
+
+    String description;
+
+    List<String> categoryNames;
+}
@@ -0,0 +1,75 @@
+package ru.job4j.todo.dto;
+
+import lombok.Value;
+import ru.job4j.todo.model.Category;
+import ru.job4j.todo.model.Task;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Неизменяемое представление задачи для отображения. Дата создания хранится как момент времени
+ * и переводится в часовой пояс пользователя только при выводе (см. DateFormat.forZone)
+ */
+@Value
+public class TaskView {
+
+    /**
+     * Часовой пояс, в котором дата создания задачи хранится в БД
+     */
+    public static final ZoneId STORAGE_ZONE = ZoneId.systemDefault();
+
+    int id;
+
+    String description;
+
+    Instant created;
+
+    boolean done;
+
+    String userName;
+
+    String priorityName;
+
+    List<String> categoryNames;
+
+    /**
+     * Создать представление задачи. Связанные пользователь, приоритет и категории должны быть загружены
+     *
+     * @param task Задача
+     * @return Представление задачи
+     */
+    public static TaskView of(Task task) {
+        return new TaskView(
+                task.getId(),
+                task.getDescription(),
+                task.getCreated() == null ? null : task.getCreated().atZone(STORAGE_ZONE).toInstant(),
+                task.isDone(),
+                task.getUser() == null ? null : task.getUser().getName(),
+                task.getPriority() == null ? null : task.getPriority().getName(),
+                task.getCategories().stream().map(Category::getName).collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Создать представление задачи из строки проекции
+     *
+     * @param row           Строка проекции
+     * @param userName      Имя пользователя, которому принадлежит задача
+     * @param categoryNames Названия категорий задачи
+     * @return Представление задачи
+     */
+    public static TaskView of(TaskRow row, String userName, List<String> categoryNames) {
+        return new TaskView(
+                row.getId(),
+                row.getDescription(),
+                row.getCreated() == null ? null : row.getCreated().atZone(STORAGE_ZONE).toInstant(),
+                row.isDone(),
+                userName,
+                row.getPriorityName(),
+                categoryNames
+        );
+    }
+}
@@ -0,0 +1,51 @@
+package ru.job4j.todo.dto;
+
+import lombok.Value;
+import ru.job4j.todo.model.User;
+
+import java.io.Serializable;
+import java.time.ZoneId;
+
+/**
+ * Аутентифицированный пользователь, хранящийся в HTTP-сессии после входа.
+ * В отличие от объекта модели User не содержит пароля, а часовой пояс
+ * разобран один раз при входе
+ */
+@Value
+public class UserPrincipal implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Имя атрибута HTTP-сессии, в котором хранится пользователь
+     */
+    public static final String SESSION_ATTRIBUTE = "user";
+
+    int id;
+
+    String login;
+
+    String name;
+
+    ZoneId zoneId;
+
+    /**
+     * Создать представление аутентифицированного пользователя
+     *
+     * @param user Пользователь из репозитория
+     * @return Представление пользователя
+     */
+    public static UserPrincipal of(User user) {
+        return new UserPrincipal(user.getId(), user.getLogin(), user.getName(), ZoneId.of(user.getUserZone()));
+    }
+
+    /**
+     * Получить объект модели User для передачи в сервисы. Объект не содержит пароля
+     * и используется только как ссылка на пользователя
+     *
+     * @return Объект модели User
+     */
+    public User toUser() {
+        return new User(id, name, login, null, zoneId.getId());
+    }
+}
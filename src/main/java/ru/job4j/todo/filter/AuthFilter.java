@@ -1,17 +1,26 @@
 package ru.job4j.todo.filter;
 
 import org.springframework.stereotype.Component;
+import ru.job4j.todo.dto.UserPrincipal;
 
 import javax.servlet.*;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
 import java.io.IOException;
+import java.util.List;
 import java.util.Set;
 
 @Component
 public class AuthFilter implements Filter {
 
-    private static final Set<String> ALLOWED_MAPPINGS = Set.of("login", "/users/register");
+    private static final Set<String> ALLOWED_MAPPINGS = Set.of(
+            "/login", "/users/register", "/actuator/health", "/actuator/prometheus"
+    );
+
+    private static final List<String> STATIC_PREFIXES = List.of(
+            "/css/", "/js/", "/images/", "/webjars/", "/favicon.ico"
+    );
 
     @Override
     public void doFilter(
@@ -20,19 +29,20 @@ public class AuthFilter implements Filter {
             FilterChain chain) throws IOException, ServletException {
         HttpServletRequest req = (HttpServletRequest) request;
         HttpServletResponse res = (HttpServletResponse) response;
-        String uri = req.getRequestURI();
-        if (allowGuestAccess(uri)) {
+        String path = req.getRequestURI().substring(req.getContextPath().length());
+        if (isStaticResource(path) || ALLOWED_MAPPINGS.contains(path)) {
             chain.doFilter(req, res);
             return;
         }
-        if (req.getSession().getAttribute("user") == null) {
+        HttpSession session = req.getSession(false);
+        if (session == null || session.getAttribute(UserPrincipal.SESSION_ATTRIBUTE) == null) {
             res.sendRedirect(req.getContextPath() + "/login");
             return;
         }
         chain.doFilter(req, res);
     }
 
-    private boolean allowGuestAccess(String uri) {
-        return ALLOWED_MAPPINGS.stream().anyMatch(uri::endsWith);
+    private boolean isStaticResource(String path) {
+        return STATIC_PREFIXES.stream().anyMatch(path::startsWith);
     }
 }
\ No newline at end of file
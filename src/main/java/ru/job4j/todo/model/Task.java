@@ -1,9 +1,13 @@
 package ru.job4j.todo.model;
 
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -12,14 +16,41 @@ import java.util.Set;
 
 @Entity
 @Table(name = "tasks")
+@NamedEntityGraph(
+        name = Task.LIST_GRAPH,
+        attributeNodes = {@NamedAttributeNode("user"), @NamedAttributeNode("priority")}
+)
+@NamedEntityGraph(
+        name = Task.DETAIL_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("user"),
+                @NamedAttributeNode("priority"),
+                @NamedAttributeNode("categories")
+        }
+)
+@NamedEntityGraph(
+        name = Task.EDIT_GRAPH,
+        attributeNodes = {@NamedAttributeNode("priority"), @NamedAttributeNode("categories")}
+)
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Task {
 
+    public static final String LIST_GRAPH = "Task.list";
+
+    public static final String DETAIL_GRAPH = "Task.detail";
+
+    public static final String EDIT_GRAPH = "Task.edit";
+
+    /**
+     * Значение priorityPosition для задачи без приоритета: такие задачи сортируются в конце
+     */
+    public static final int NO_PRIORITY_POSITION = Integer.MAX_VALUE;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private int id;
 
@@ -27,7 +58,7 @@ public class Task {
     private LocalDateTime created;
     private boolean done;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
@@ -36,10 +67,38 @@ public class Task {
     private Priority priority;
 
     @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "task-categories")
     @JoinTable(
             name = "tasks_categories",
             joinColumns = {@JoinColumn(name = "task_id")},
             inverseJoinColumns = {@JoinColumn(name = "category_id")}
     )
     private Set<Category> categories = new HashSet<>();
+
+    /**
+     * Позиция приоритета задачи, хранимая в таблице задач, чтобы сортировку по приоритету
+     * обслуживал индекс (user_id, priority_position, created, id). Вычисляется из priority
+     * при каждом сохранении задачи; изменение Priority.position требует пересчета колонки в БД
+     */
+    @Column(name = "priority_position")
+    @Setter(AccessLevel.NONE)
+    private int priorityPosition = NO_PRIORITY_POSITION;
+
+    public Task(int id, String description, LocalDateTime created, boolean done,
+                User user, Priority priority, Set<Category> categories) {
+        this.id = id;
+        this.description = description;
+        this.created = created;
+        this.done = done;
+        this.user = user;
+        this.priority = priority;
+        this.categories = categories;
+    }
+
+    @PrePersist
+    @PreUpdate
+    private void updatePriorityPosition() {
+        priorityPosition = priority == null ? NO_PRIORITY_POSITION : priority.getPosition();
+    }
 }
\ No newline at end of file
@@ -20,12 +20,20 @@ public interface CrudRepository {
 
     <T> List<T> query(String query, Class<T> cl, Map<String, Object> args);
 
+    <T> List<T> query(String query, Class<T> cl, Map<String, Object> args, String fetchGraph);
+
+    <T> List<T> cachedQuery(String query, Class<T> cl);
+
     <T> List<T> query(String query, Class<T> cl, Map<String, Collection<?>> collectionArgs, Map<String, Object> args);
 
+    <T> void scroll(String query, Class<T> cl, Map<String, Object> args, int fetchSize, Consumer<T> consumer);
+
     <T> Optional<T> optional(Function<Session, T> command);
 
     <T> Optional<T> optional(String query, Class<T> cl, Map<String, Object> args);
 
+    <T> Optional<T> optional(String query, Class<T> cl, Map<String, Object> args, String fetchGraph);
+
     <T> T tx(Function<Session, T> command);
 
     boolean execute(Predicate<Session> command);
@@ -24,13 +24,14 @@ public class HibernateCategoryRepository implements CategoryRepository {
     private final CrudRepository crudRepository;
 
     /**
-     * Получить все записи для модели Category из БД
+     * Получить все записи для модели Category из БД.
+     * Результат запроса сохраняется в кэше запросов Hibernate, если он включен
      *
      * @return Список категорий. Пустой список, если ничего не найдено
      */
     @Override
     public List<Category> findAll() {
-        return crudRepository.query(FIND_ALL_QUERY, Category.class);
+        return crudRepository.cachedQuery(FIND_ALL_QUERY, Category.class);
     }
 
     /**
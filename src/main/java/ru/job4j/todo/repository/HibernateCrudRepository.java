@@ -1,40 +1,105 @@
 package ru.job4j.todo.repository;
 
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
+import org.hibernate.graph.GraphSemantic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+/**
+ * Выполняет команды в транзакции, управляемой Spring. Если транзакция уже открыта
+ * (напр., методом сервиса с аннотацией Transactional), команда выполняется в ней
+ * и использует ту же сессию Hibernate и то же соединение с БД.
+ * Время каждой операции записывается в таймер todo.repository.operations с тегами operation
+ * (имя метода) и query (имя константы запроса, см. {@link QueryNames}), количество откатов
+ * транзакций, открытых репозиторием, -- в счетчик todo.repository.rollbacks. Медленные операции
+ * записываются в журнал
+ */
 @Repository
-@AllArgsConstructor
 public class HibernateCrudRepository implements CrudRepository {
 
+    private static final Logger LOG = LoggerFactory.getLogger(HibernateCrudRepository.class);
+
+    private static final String TIMER_NAME = "todo.repository.operations";
+
+    private static final String ROLLBACK_COUNTER_NAME = "todo.repository.rollbacks";
+
+    private static final String PASSWORD = "password";
+
+    private static final String MASK = "***";
+
     private final SessionFactory sf;
 
+    private final TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry registry;
+
+    private final Counter rollbacks;
+
+    private final TransactionSynchronization rollbackListener = new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_ROLLED_BACK) {
+                rollbacks.increment();
+            }
+        }
+    };
+
+    private final long slowQueryThreshold;
+
+    public HibernateCrudRepository(
+            SessionFactory sf,
+            PlatformTransactionManager transactionManager,
+            ObjectProvider<MeterRegistry> registry,
+            @Value("${repository.slow-query-threshold-ms:500}") long slowQueryThresholdMs
+    ) {
+        this.sf = sf;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.registry = registry.getIfAvailable(SimpleMeterRegistry::new);
+        this.rollbacks = Counter.builder(ROLLBACK_COUNTER_NAME)
+                .description("Транзакции репозитория, завершенные откатом")
+                .register(this.registry);
+        this.slowQueryThreshold = TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMs);
+    }
+
     @Override
     public void run(Consumer<Session> command) {
-        tx(session -> {
+        timed("run", null, Map.of(), () -> inTx(session -> {
             command.accept(session);
             return null;
-        });
+        }));
     }
 
     @Override
     public void run(String query, Map<String, Object> args) {
-        Consumer<Session> command = session -> {
+        timed("run", query, args, () -> inTx(session -> {
             var sq = session.createQuery(query);
             for (Map.Entry<String, Object> arg : args.entrySet()) {
                 sq.setParameter(arg.getKey(), arg.getValue());
             }
-            sq.executeUpdate();
-        };
-        run(command);
+            return sq.executeUpdate();
+        }));
     }
 
     @Override
@@ -42,7 +107,7 @@ public class HibernateCrudRepository implements CrudRepository {
         Function<Session, List<T>> command = session -> session
                 .createQuery(query, cl)
                 .list();
-        return tx(command);
+        return timed("query", query, Map.of(), () -> inTx(command));
     }
 
     @Override
@@ -54,7 +119,39 @@ public class HibernateCrudRepository implements CrudRepository {
             }
             return sq.list();
         };
-        return tx(command);
+        return timed("query", query, args, () -> inTx(command));
+    }
+
+    /**
+     * Выполнить запрос, загружая вместе с результатами ассоциации из именованного графа сущности.
+     * Ассоциации вне графа загружаются лениво независимо от их собственного режима загрузки
+     *
+     * @param query      Запрос HQL
+     * @param cl         Класс результата запроса
+     * @param args       Параметры запроса
+     * @param fetchGraph Имя графа сущности (см. NamedEntityGraph)
+     * @return Список результатов
+     */
+    @Override
+    public <T> List<T> query(String query, Class<T> cl, Map<String, Object> args, String fetchGraph) {
+        Function<Session, List<T>> command = session -> {
+            var sq = session.createQuery(query, cl)
+                    .setHint(GraphSemantic.FETCH.getJpaHintName(), session.getEntityGraph(fetchGraph));
+            for (Map.Entry<String, Object> arg : args.entrySet()) {
+                sq.setParameter(arg.getKey(), arg.getValue());
+            }
+            return sq.list();
+        };
+        return timed("query", query, args, () -> inTx(command));
+    }
+
+    @Override
+    public <T> List<T> cachedQuery(String query, Class<T> cl) {
+        Function<Session, List<T>> command = session -> session
+                .createQuery(query, cl)
+                .setCacheable(true)
+                .list();
+        return timed("cachedQuery", query, Map.of(), () -> inTx(command));
     }
 
     @Override
@@ -69,7 +166,9 @@ public class HibernateCrudRepository implements CrudRepository {
             }
             return sq.list();
         };
-        return tx(command);
+        Map<String, Object> allArgs = new HashMap<>(args);
+        allArgs.putAll(collectionArgs);
+        return timed("query", query, allArgs, () -> inTx(command));
     }
 
     @Override
@@ -83,55 +182,180 @@ public class HibernateCrudRepository implements CrudRepository {
             result = sq.uniqueResultOptional();
             return result;
         };
-        return tx(command);
+        return timed("optional", query, args, () -> inTx(command));
     }
 
+    /**
+     * Выполнить запрос единственного результата, загружая вместе с ним ассоциации
+     * из именованного графа сущности
+     *
+     * @param query      Запрос HQL
+     * @param cl         Класс результата запроса
+     * @param args       Параметры запроса
+     * @param fetchGraph Имя графа сущности (см. NamedEntityGraph)
+     * @return Optional результата. Optional.empty(), если ничего не найдено
+     */
+    @Override
+    public <T> Optional<T> optional(String query, Class<T> cl, Map<String, Object> args, String fetchGraph) {
+        Function<Session, Optional<T>> command = session -> {
+            var sq = session.createQuery(query, cl)
+                    .setHint(GraphSemantic.FETCH.getJpaHintName(), session.getEntityGraph(fetchGraph));
+            for (Map.Entry<String, Object> arg : args.entrySet()) {
+                sq.setParameter(arg.getKey(), arg.getValue());
+            }
+            return sq.uniqueResultOptional();
+        };
+        return timed("optional", query, args, () -> inTx(command));
+    }
+
+    /**
+     * Передать результаты запроса обработчику по одному, не загружая их в память целиком.
+     * Запрос выполняется в отдельной сессии без состояния (без кэша первого и второго уровня)
+     * и в отдельной транзакции с собственным соединением: строки читаются курсором БД порциями
+     * по fetchSize. Транзакция нужна, т.к. драйвер PostgreSQL использует курсор только при
+     * выключенном autocommit
+     *
+     * @param query     Запрос HQL
+     * @param cl        Класс результата запроса
+     * @param args      Параметры запроса
+     * @param fetchSize Количество строк, получаемых из БД за одно обращение
+     * @param consumer  Обработчик результатов
+     */
+    @Override
+    public <T> void scroll(String query, Class<T> cl, Map<String, Object> args, int fetchSize, Consumer<T> consumer) {
+        timer("scroll", QueryNames.of(query)).record(() -> doScroll(query, cl, args, fetchSize, consumer));
+    }
+
+    private <T> void doScroll(String query, Class<T> cl, Map<String, Object> args, int fetchSize, Consumer<T> consumer) {
+        try (StatelessSession session = sf.openStatelessSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                var sq = session.createQuery(query, cl).setFetchSize(fetchSize);
+                for (Map.Entry<String, Object> arg : args.entrySet()) {
+                    sq.setParameter(arg.getKey(), arg.getValue());
+                }
+                try (Stream<T> results = sq.stream()) {
+                    results.forEach(consumer);
+                }
+                transaction.commit();
+            } catch (RuntimeException e) {
+                transaction.rollback();
+                rollbacks.increment();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Выполнить команду в собственной транзакции. Ошибка команды или фиксации записывается в журнал
+     * и возвращается как Optional.empty(). Вызывать только вне транзакции: в уже открытой транзакции
+     * ошибка пометила бы ее для отката, и вызывающий получил бы Optional.empty(), а при фиксации --
+     * UnexpectedRollbackException; кроме того, команда может очищать сессию (session.clear())
+     * и отсоединять объекты вызывающего
+     *
+     * @param command Команда
+     * @return Optional результата команды. Optional.empty() в случае ошибки
+     * @throws IllegalStateException Если метод вызван в открытой транзакции
+     */
     @Override
     public <T> Optional<T> optional(Function<Session, T> command) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Команду optional нельзя выполнять в открытой транзакции");
+        }
         Optional<T> result = Optional.empty();
         try {
-            result = Optional.of(tx(command));
+            result = Optional.of(timed("optional", null, Map.of(), () -> inTx(session -> {
+                T rsl = command.apply(session);
+                session.flush();
+                return rsl;
+            })));
         } catch (Exception e) {
-            System.out.println(e.getMessage());
+            LOG.warn("Команда репозитория завершилась ошибкой: {}", e.getMessage(), e);
         }
         return result;
     }
 
     @Override
     public <T> T tx(Function<Session, T> command) {
-        var session = sf
-                .withOptions()
-                .openSession();
-        Transaction tx = null;
-        try {
-            tx = session.beginTransaction();
-            T rsl = command.apply(session);
-            tx.commit();
-            return rsl;
-        } catch (Exception e) {
-           if (tx != null) {
-               tx.rollback();
-           }
-            throw e;
-        } finally {
-            session.close();
-        }
+        return timed("tx", null, Map.of(), () -> inTx(command));
     }
 
     @Override
     public boolean execute(Predicate<Session> command) {
-        return tx(command::test);
+        return timed("execute", null, Map.of(), () -> inTx(command::test));
     }
 
     @Override
     public boolean execute(String query, Map<String, Object> args) {
-        Predicate<Session> command = session -> {
+        return timed("execute", query, args, () -> inTx(session -> {
             var sq = session.createQuery(query);
             for (Map.Entry<String, Object> arg : args.entrySet()) {
                 sq.setParameter(arg.getKey(), arg.getValue());
             }
             return sq.executeUpdate() > 0;
-        };
-        return execute(command);
+        }));
+    }
+
+    /**
+     * Выполнить команду в транзакции. В счетчике откатов учитывается только откат транзакции,
+     * открытой здесь: если команда выполняется в уже открытой транзакции, ее откат
+     * (или фиксация) -- дело того, кто ее открыл, и исключение одной команды не учитывается
+     * многократно на каждом уровне вложенности. Откат при ошибке фиксации тоже учитывается
+     */
+    private <T> T inTx(Function<Session, T> command) {
+        return transactionTemplate.execute(status -> {
+            if (status.isNewTransaction()) {
+                TransactionSynchronizationManager.registerSynchronization(rollbackListener);
+            }
+            return command.apply(sf.getCurrentSession());
+        });
+    }
+
+    /**
+     * Выполнить операцию с записью времени в таймер. Операции дольше порога
+     * repository.slow-query-threshold-ms записываются в журнал на уровне WARN без параметров запроса:
+     * параметры содержат данные пользователей (описания задач, логины). Параметры записываются
+     * отдельным сообщением только на уровне DEBUG, значения параметров, в имени которых есть password,
+     * и в этом случае скрываются
+     *
+     * @param operation Имя операции
+     * @param query     Текст запроса HQL. null -- для команд
+     * @param args      Параметры запроса
+     * @param command   Операция
+     * @return Результат операции
+     */
+    private <T> T timed(String operation, String query, Map<String, ?> args, Supplier<T> command) {
+        String queryName = query == null ? QueryNames.COMMAND : QueryNames.of(query);
+        long start = System.nanoTime();
+        try {
+            return command.get();
+        } finally {
+            long duration = System.nanoTime() - start;
+            timer(operation, queryName).record(duration, TimeUnit.NANOSECONDS);
+            if (duration >= slowQueryThreshold) {
+                LOG.warn(
+                        "Медленная операция репозитория {} {} ({} мс): {}",
+                        operation, queryName, TimeUnit.NANOSECONDS.toMillis(duration), query == null ? "" : query
+                );
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Параметры медленной операции репозитория {} {}: {}", operation, queryName, masked(args));
+                }
+            }
+        }
+    }
+
+    private Timer timer(String operation, String queryName) {
+        return Timer.builder(TIMER_NAME)
+                .tag("operation", operation)
+                .tag("query", queryName)
+                .register(registry);
+    }
+
+    private static Map<String, Object> masked(Map<String, ?> args) {
+        Map<String, Object> result = new TreeMap<>();
+        args.forEach((name, value) -> result.put(
+                name, name.toLowerCase().contains(PASSWORD) ? MASK : value
+        ));
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -24,13 +24,14 @@ public class HibernatePriorityRepository implements PriorityRepository {
     private final CrudRepository crudRepository;
 
     /**
-     * Получить все записи для модели Priority из БД
+     * Получить все записи для модели Priority из БД.
+     * Результат запроса сохраняется в кэше запросов Hibernate, если он включен
      *
      * @return Список задач. Пустой список, если ничего не найдено
      */
     @Override
     public List<Priority> findAll() {
-        return crudRepository.query(FIND_ALL_QUERY, Priority.class);
+        return crudRepository.cachedQuery(FIND_ALL_QUERY, Priority.class);
     }
 
     /**
@@ -2,15 +2,28 @@ package ru.job4j.todo.repository;
 
 import lombok.AllArgsConstructor;
 import net.jcip.annotations.ThreadSafe;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.graph.GraphSemantic;
 import org.springframework.stereotype.Repository;
+import ru.job4j.todo.dto.Page;
+import ru.job4j.todo.dto.TaskCursor;
+import ru.job4j.todo.dto.TaskFilter;
+import ru.job4j.todo.dto.TaskRecord;
+import ru.job4j.todo.dto.TaskRow;
+import ru.job4j.todo.dto.TaskText;
+import ru.job4j.todo.dto.TaskView;
 import ru.job4j.todo.model.Category;
 import ru.job4j.todo.model.Priority;
 import ru.job4j.todo.model.Task;
+import ru.job4j.todo.model.User;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 
 /**
@@ -21,14 +34,57 @@ import java.util.Set;
 @AllArgsConstructor
 public class HibernateTaskRepository implements TaskRepository {
 
-    private static final String FIND_ALL_QUERY
-            = "SELECT DISTINCT t FROM Task t LEFT JOIN FETCH t.priority LEFT JOIN FETCH t.categories";
+    private static final String FIND_ALL_QUERY = "SELECT t FROM Task t ORDER BY t.created DESC, t.id DESC";
 
     private static final String FIND_ALL_BY_DONE_QUERY
-            = "SELECT DISTINCT t FROM Task t LEFT JOIN FETCH t.priority LEFT JOIN FETCH t.categories WHERE done = :fDone";
+            = "SELECT t FROM Task t WHERE t.done = :fDone ORDER BY t.created DESC, t.id DESC";
 
-    private static final String FIND_BY_ID_QUERY
-            = "SELECT DISTINCT t FROM Task t LEFT JOIN FETCH t.priority LEFT JOIN FETCH t.categories WHERE t.id = :fId";
+    private static final String FIND_ALL_BY_USER_QUERY
+            = "SELECT t FROM Task t WHERE t.user.id = :fUserId ORDER BY t.created DESC, t.id DESC";
+
+    private static final String FIND_ALL_BY_USER_AND_DONE_QUERY
+            = "SELECT t FROM Task t WHERE t.user.id = :fUserId AND t.done = :fDone ORDER BY t.created DESC, t.id DESC";
+
+    private static final String FIND_ALL_BY_IDS_QUERY = "SELECT t FROM Task t WHERE t.id IN (:fIds)";
+
+    private static final String FIND_ROWS_BY_IDS_QUERY
+            = "SELECT new ru.job4j.todo.dto.TaskRow(t.id, t.description, t.created, t.done, p.name)"
+            + " FROM Task t LEFT JOIN t.priority p WHERE t.id IN (:fIds)";
+
+    private static final String FIND_CATEGORY_NAMES_BY_IDS_QUERY
+            = "SELECT t.id, c.name FROM Task t JOIN t.categories c WHERE t.id IN (:fIds) ORDER BY c.name";
+
+    private static final String FIND_PAGE_IDS_QUERY = "SELECT t.id FROM Task t";
+
+    private static final String SEARCH_IDS_BY_USER_QUERY
+            = "SELECT t.id FROM tasks t, plainto_tsquery('russian', :fQuery) q"
+            + " WHERE t.user_id = :fUserId AND t.search_vector @@ q"
+            + " ORDER BY ts_rank(t.search_vector, q) DESC, t.created DESC, t.id DESC";
+
+    private static final String LIKE_CONDITION = "lower(t.description) LIKE :fWord%d ESCAPE '!'";
+
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private static final String PAGE_ORDER = " ORDER BY t.created DESC, t.id DESC";
+
+    private static final String DONE_CONDITION = "t.done = :fDone";
+
+    private static final String USER_CONDITION = "t.user.id = :fUserId";
+
+    private static final String PRIORITY_CONDITION = "t.priority.id IN (:fPriorityIds)";
+
+    private static final String CATEGORY_CONDITION
+            = "t.id IN (SELECT tc.id FROM Task tc JOIN tc.categories c WHERE c.id IN (:fCategoryIds))";
+
+    private static final String CREATED_FROM_CONDITION = "t.created >= :fCreatedFrom";
+
+    private static final String CREATED_TO_CONDITION = "t.created < :fCreatedTo";
+
+    private static final String FIND_BY_ID_QUERY = "SELECT DISTINCT t FROM Task t WHERE t.id = :fId";
+
+    private static final String TEXTS_QUERY
+            = "SELECT t.id, t.user.id, t.description, c.name FROM Task t"
+            + " LEFT JOIN t.categories c ORDER BY t.id";
 
     private static final String UPDATE_DESCRIPTION_BY_ID_QUERY
             = "UPDATE Task SET description = :fDescription WHERE id = :fId";
@@ -39,6 +95,12 @@ public class HibernateTaskRepository implements TaskRepository {
 
     private final CrudRepository crudRepository;
 
+    /**
+     * Поддерживает ли БД полнотекстовый поиск (столбец search_vector создается только в PostgreSQL).
+     * Определяется при первом поиске
+     */
+    private final AtomicReference<Boolean> fullTextSearch = new AtomicReference<>();
+
     /**
      * Получить все записи для модели Task из БД
      *
@@ -46,7 +108,7 @@ public class HibernateTaskRepository implements TaskRepository {
      */
     @Override
     public List<Task> findAll() {
-        return crudRepository.query(FIND_ALL_QUERY, Task.class);
+        return queryWithCategories(FIND_ALL_QUERY, Map.of());
     }
 
     /**
@@ -57,28 +119,305 @@ public class HibernateTaskRepository implements TaskRepository {
      */
     @Override
     public List<Task> findAllByDone(boolean done) {
-        return crudRepository.query(
-                FIND_ALL_BY_DONE_QUERY,
-                Task.class,
-                Map.of("fDone", done)
+        return queryWithCategories(FIND_ALL_BY_DONE_QUERY, Map.of("fDone", done));
+    }
+
+    /**
+     * Получить все записи для модели Task из БД, принадлежащие передаваемому пользователю
+     *
+     * @param user Пользователь, которому принадлежат задачи
+     * @return Список задач. Пустой список, если ничего не найдено
+     */
+    @Override
+    public List<Task> findAllByUser(User user) {
+        return queryWithCategories(FIND_ALL_BY_USER_QUERY, Map.of("fUserId", user.getId()));
+    }
+
+    /**
+     * Получить все записи для модели Task из БД, принадлежащие передаваемому пользователю
+     * и отфильтрованные по передаваемому значению done
+     *
+     * @param user Пользователь, которому принадлежат задачи
+     * @param done Значение поля done для объектов Task (true -- для выполненных, false -- для невыполненных)
+     * @return Список задач. Пустой список, если ничего не найдено
+     */
+    @Override
+    public List<Task> findAllByUserAndDone(User user, boolean done) {
+        return queryWithCategories(
+                FIND_ALL_BY_USER_AND_DONE_QUERY,
+                Map.of(
+                        "fUserId", user.getId(),
+                        "fDone", done
+                )
         );
     }
 
     /**
-     * Получить один объект Task из БД по id
+     * Получить страницу задач, упорядоченных от новых к старым
+     *
+     * @param cursor Курсор, указывающий на последнюю задачу предыдущей страницы. null -- для первой страницы
+     * @param size   Максимальное количество задач на странице
+     * @return Страница задач. Курсор следующей страницы равен null, если страница последняя
+     */
+    @Override
+    public Page<Task> findPage(TaskCursor cursor, int size) {
+        return findPage(List.of(), Map.of(), TaskSort.CREATED_DESC, cursor, size);
+    }
+
+    /**
+     * Получить страницу задач, отфильтрованных по передаваемому значению done, упорядоченных от новых к старым
+     *
+     * @param done   Значение поля done для объектов Task (true -- для выполненных, false -- для невыполненных)
+     * @param cursor Курсор, указывающий на последнюю задачу предыдущей страницы. null -- для первой страницы
+     * @param size   Максимальное количество задач на странице
+     * @return Страница задач. Курсор следующей страницы равен null, если страница последняя
+     */
+    @Override
+    public Page<Task> findPageByDone(boolean done, TaskCursor cursor, int size) {
+        return findPage(List.of(DONE_CONDITION), Map.of("fDone", done), TaskSort.CREATED_DESC, cursor, size);
+    }
+
+    /**
+     * Получить страницу задач передаваемого пользователя, упорядоченных от новых к старым
+     *
+     * @param user   Пользователь, которому принадлежат задачи
+     * @param cursor Курсор, указывающий на последнюю задачу предыдущей страницы. null -- для первой страницы
+     * @param size   Максимальное количество задач на странице
+     * @return Страница задач. Курсор следующей страницы равен null, если страница последняя
+     */
+    @Override
+    public Page<Task> findPageByUser(User user, TaskCursor cursor, int size) {
+        return findPage(
+                List.of(USER_CONDITION), Map.of("fUserId", user.getId()), TaskSort.CREATED_DESC, cursor, size
+        );
+    }
+
+    /**
+     * Получить страницу задач передаваемого пользователя, отфильтрованных по передаваемому значению done,
+     * упорядоченных от новых к старым
+     *
+     * @param user   Пользователь, которому принадлежат задачи
+     * @param done   Значение поля done для объектов Task (true -- для выполненных, false -- для невыполненных)
+     * @param cursor Курсор, указывающий на последнюю задачу предыдущей страницы. null -- для первой страницы
+     * @param size   Максимальное количество задач на странице
+     * @return Страница задач. Курсор следующей страницы равен null, если страница последняя
+     */
+    @Override
+    public Page<Task> findPageByUserAndDone(User user, boolean done, TaskCursor cursor, int size) {
+        return findPage(
+                List.of(USER_CONDITION, DONE_CONDITION),
+                Map.of(
+                        "fUserId", user.getId(),
+                        "fDone", done
+                ),
+                TaskSort.CREATED_DESC,
+                cursor,
+                size
+        );
+    }
+
+    /**
+     * Получить страницу представлений задач передаваемого пользователя. В отличие от findPageByUser
+     * задачи не загружаются как сущности: поля задачи и название приоритета читаются проекцией,
+     * названия категорий -- отдельным запросом для всей страницы, пользователь не присоединяется
+     *
+     * @param user   Пользователь, которому принадлежат задачи
+     * @param cursor Курсор, указывающий на последнюю задачу предыдущей страницы. null -- для первой страницы
+     * @param size   Максимальное количество задач на странице
+     * @return Страница представлений задач
+     */
+    @Override
+    public Page<TaskView> findViewPageByUser(User user, TaskCursor cursor, int size) {
+        return findViewPage(
+                user, List.of(USER_CONDITION), Map.of("fUserId", user.getId()), TaskSort.CREATED_DESC, cursor, size
+        );
+    }
+
+    /**
+     * Получить страницу представлений задач передаваемого пользователя, отфильтрованных
+     * по передаваемому значению done. Задачи не загружаются как сущности (см. findViewPageByUser)
+     *
+     * @param user   Пользователь, которому принадлежат задачи
+     * @param done   Значение поля done (true -- для выполненных, false -- для невыполненных)
+     * @param cursor Курсор, указывающий на последнюю задачу предыдущей страницы. null -- для первой страницы
+     * @param size   Максимальное количество задач на странице
+     * @return Страница представлений задач
+     */
+    @Override
+    public Page<TaskView> findViewPageByUserAndDone(User user, boolean done, TaskCursor cursor, int size) {
+        return findViewPage(
+                user,
+                List.of(USER_CONDITION, DONE_CONDITION),
+                Map.of(
+                        "fUserId", user.getId(),
+                        "fDone", done
+                ),
+                TaskSort.CREATED_DESC,
+                cursor,
+                size
+        );
+    }
+
+    /**
+     * Получить страницу представлений задач передаваемого пользователя, удовлетворяющих фильтру.
+     * Все заполненные критерии фильтра объединяются в условие одного запроса идентификаторов задач
+     * страницы, затем задачи читаются проекцией (см. findViewPageByUser). Слова текста фильтра
+     * ищутся в описании без учета регистра. Задачи сортируются в БД в передаваемом порядке
+     *
+     * @param user     Пользователь, которому принадлежат задачи
+     * @param userZone Часовой пояс пользователя, в котором заданы даты периода создания в фильтре
+     * @param filter   Фильтр задач
+     * @param sort     Порядок сортировки. Курсор должен быть получен для того же порядка
+     * @param cursor Курсор, указывающий на последнюю задачу предыдущей страницы. null -- для первой страницы
+     * @param size   Максимальное количество задач на странице
+     * @return Страница представлений задач
+     */
+    @Override
+    public Page<TaskView> findViewPageByUser(User user, ZoneId userZone, TaskFilter filter,
+                                             TaskSort sort, TaskCursor cursor, int size) {
+        List<String> conditions = new ArrayList<>(List.of(USER_CONDITION));
+        Map<String, Object> args = new HashMap<>(Map.of("fUserId", user.getId()));
+        if (filter.getDone() != null) {
+            conditions.add(DONE_CONDITION);
+            args.put("fDone", filter.getDone());
+        }
+        if (filter.getPriorityIds() != null && !filter.getPriorityIds().isEmpty()) {
+            conditions.add(PRIORITY_CONDITION);
+            args.put("fPriorityIds", filter.getPriorityIds());
+        }
+        if (filter.getCategoryIds() != null && !filter.getCategoryIds().isEmpty()) {
+            conditions.add(CATEGORY_CONDITION);
+            args.put("fCategoryIds", filter.getCategoryIds());
+        }
+        if (filter.getCreatedFrom() != null) {
+            conditions.add(CREATED_FROM_CONDITION);
+            args.put("fCreatedFrom", filter.createdFromTime(userZone));
+        }
+        if (filter.getCreatedTo() != null) {
+            conditions.add(CREATED_TO_CONDITION);
+            args.put("fCreatedTo", filter.createdToTime(userZone));
+        }
+        addWordConditions(words(filter.getText()), conditions, args);
+        return findViewPage(user, conditions, args, sort, cursor, size);
+    }
+
+    /**
+     * Найти задачи передаваемого пользователя по словам из описания. В PostgreSQL используется
+     * полнотекстовый поиск по столбцу search_vector (индекс GIN), задачи упорядочиваются
+     * по релевантности, затем от новых к старым. В остальных БД (H2 в тестах) ищутся задачи,
+     * описание которых содержит все слова запроса без учета регистра, от новых к старым.
+     * Задачи читаются проекцией, как в findViewPageByUser
+     *
+     * @param user   Пользователь, которому принадлежат задачи
+     * @param query  Строка поиска
+     * @param offset Количество пропускаемых задач
+     * @param size   Максимальное количество задач на странице
+     * @return Страница представлений задач. Курсор следующей страницы -- смещение следующей страницы
+     */
+    @Override
+    public Page<TaskView> searchViewPageByUser(User user, String query, int offset, int size) {
+        List<String> words = words(query);
+        if (words.isEmpty()) {
+            return new Page<>(List.of(), null);
+        }
+        return crudRepository.tx(session -> {
+            List<Integer> ids = isFullTextSearch(session)
+                    ? searchIdsFullText(session, user, query, offset, size)
+                    : searchIdsLike(session, user, words, offset, size);
+            boolean hasNext = ids.size() > size;
+            List<Integer> pageIds = hasNext ? ids.subList(0, size) : ids;
+            if (pageIds.isEmpty()) {
+                return new Page<>(List.of(), null);
+            }
+            Map<Integer, TaskRow> rows = findRows(session, pageIds);
+            Map<Integer, List<String>> categoryNames = findCategoryNames(session, pageIds);
+            return new Page<>(
+                    toViews(pageIds, rows, categoryNames, user), hasNext ? String.valueOf(offset + size) : null
+            );
+        });
+    }
+
+    /**
+     * Получить один объект Task из БД по id вместе с пользователем, приоритетом и категориями
      *
      * @param id Уникальный идентификатор объекта Task
      * @return Optional для объекта Task, если в БД существует запись для переданного id. Иначе -- Optional.empty()
      */
     @Override
     public Optional<Task> findById(int id) {
+        return findById(id, TaskFetchPlan.DETAIL);
+    }
+
+    /**
+     * Получить один объект Task из БД по id. Связи задачи, входящие в план загрузки,
+     * загружаются тем же запросом, остальные остаются ленивыми
+     *
+     * @param id   Уникальный идентификатор объекта Task
+     * @param plan План загрузки связей задачи
+     * @return Optional для объекта Task, если в БД существует запись для переданного id. Иначе -- Optional.empty()
+     */
+    @Override
+    public Optional<Task> findById(int id, TaskFetchPlan plan) {
         return crudRepository.optional(
                 FIND_BY_ID_QUERY,
                 Task.class,
-                Map.of("fId", id)
+                Map.of("fId", id),
+                plan.getGraphName()
         );
     }
 
+    /**
+     * Передать обработчику все задачи пользователя в формате TaskRecord по одной, в порядке создания.
+     * Задачи читаются пакетами по fetchSize с выборкой по ключу (created, id), каждый пакет -- в
+     * собственной короткой транзакции. Обработчик вызывается вне транзакции, поэтому медленный
+     * обработчик (напр., запись в ответ медленному клиенту) не удерживает соединение с БД.
+     * Выгрузка не является снимком на один момент: задачи, добавленные или удаленные во время
+     * выгрузки, могут попасть или не попасть в нее, но каждая задача передается не более одного раза
+     *
+     * @param user      Пользователь, задачи которого нужно получить
+     * @param fetchSize Количество задач в одном пакете
+     * @param consumer  Обработчик задач
+     */
+    @Override
+    public void scrollRecordsByUser(User user, int fetchSize, Consumer<TaskRecord> consumer) {
+        List<String> conditions = List.of(USER_CONDITION);
+        Map<String, Object> args = Map.of("fUserId", user.getId());
+        TaskCursor cursor = null;
+        do {
+            TaskCursor after = cursor;
+            Page<TaskRecord> page = crudRepository.tx(session -> {
+                PageKeys keys = findPageKeys(session, conditions, args, TaskSort.CREATED_ASC, after, fetchSize);
+                if (keys.ids.isEmpty()) {
+                    return new Page<>(List.<TaskRecord>of(), null);
+                }
+                Map<Integer, TaskRow> rows = findRows(session, keys.ids);
+                Map<Integer, List<String>> categoryNames = findCategoryNames(session, keys.ids);
+                return new Page<>(toRecords(keys.ids, rows, categoryNames), keys.nextCursor);
+            });
+            page.getItems().forEach(consumer);
+            cursor = TaskCursor.parse(page.getNextCursor());
+        } while (cursor != null);
+    }
+
+    /**
+     * Передать обработчику описания и названия категорий всех задач по одной, в порядке идентификаторов.
+     * Задачи читаются курсором одной проекцией (по строке на каждую категорию задачи)
+     * и не загружаются в память целиком
+     *
+     * @param fetchSize Количество строк, получаемых из БД за одно обращение
+     * @param consumer  Обработчик текстов задач
+     */
+    @Override
+    public void scrollTexts(int fetchSize, Consumer<TaskText> consumer) {
+        CategoryRowCollector<TaskText> collector = new CategoryRowCollector<>(
+                3,
+                (row, categories) -> new TaskText((Integer) row[0], (Integer) row[1], (String) row[2], categories),
+                consumer
+        );
+        crudRepository.scroll(TEXTS_QUERY, Object[].class, Map.of(), fetchSize, collector::accept);
+        collector.flush();
+    }
+
     /**
      * Добавить новую запись в БД из объекта Task
      *
@@ -95,6 +434,30 @@ public class HibernateTaskRepository implements TaskRepository {
         });
     }
 
+    /**
+     * Добавить в БД новые записи из списка объектов Task одной транзакцией. Вставки
+     * отправляются пакетами размера hibernate.jdbc.batch_size, после каждого пакета
+     * сессия очищается, чтобы не накапливать в ней все сохраненные объекты
+     *
+     * @param tasks Список объектов Task, из которых создаются новые записи в БД
+     * @return Optional списка сохраненных объектов Task. Optional.empty() в случае, если
+     * не удалось создать хотя бы одну запись (в этом случае не создается ни одна)
+     */
+    @Override
+    public Optional<List<Task>> addAll(List<Task> tasks) {
+        return crudRepository.optional(session -> {
+            int batchSize = Math.max(session.getSessionFactory().getSessionFactoryOptions().getJdbcBatchSize(), 1);
+            for (int i = 0; i < tasks.size(); i++) {
+                session.persist(tasks.get(i));
+                if ((i + 1) % batchSize == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            return tasks;
+        });
+    }
+
     /**
      * Обновить в БД запись, соответсвующую передаваемому объекту Task
      *
@@ -126,7 +489,7 @@ public class HibernateTaskRepository implements TaskRepository {
             Set<Category> categories
     ) {
         boolean result = false;
-        Optional<Task> task = findById(id);
+        Optional<Task> task = findById(id, TaskFetchPlan.EDIT);
         if (task.isPresent()) {
             task.get().setDescription(description);
             task.get().setPriority(priority);
@@ -228,4 +591,324 @@ public class HibernateTaskRepository implements TaskRepository {
                 )
         );
     }
+
+    /**
+     * Выполнить запрос задач по плану загрузки LIST (пользователь и приоритет присоединяются
+     * к запросу), загружая категории отдельными пакетными запросами по идентификаторам задач
+     * (см. BatchSize у Task.categories) вместо JOIN FETCH коллекции, чтобы не получать строку
+     * на каждую пару задача-категория
+     *
+     * @param query Запрос, возвращающий объекты Task
+     * @param args  Параметры запроса
+     * @return Список задач с инициализированными категориями
+     */
+    private List<Task> queryWithCategories(String query, Map<String, Object> args) {
+        return crudRepository.tx(session -> {
+            List<Task> rsl = crudRepository.query(query, Task.class, args, TaskFetchPlan.LIST.getGraphName());
+            rsl.forEach(task -> Hibernate.initialize(task.getCategories()));
+            return rsl;
+        });
+    }
+
+    /**
+     * Выполнить постраничную выборку по ключу сортировки в два этапа: сначала узкий запрос
+     * идентификаторов задач страницы, затем загрузка задач по плану LIST и их категорий только
+     * для этих идентификаторов
+     *
+     * @param conditions Дополнительные условия выборки
+     * @param args       Параметры дополнительных условий
+     * @param sort       Порядок сортировки
+     * @param cursor     Курсор предыдущей страницы. null -- для первой страницы
+     * @param size       Максимальное количество задач на странице
+     * @return Страница задач
+     */
+    private Page<Task> findPage(List<String> conditions, Map<String, Object> args, TaskSort sort,
+                                TaskCursor cursor, int size) {
+        return crudRepository.tx(session -> {
+            PageKeys keys = findPageKeys(session, conditions, args, sort, cursor, size);
+            if (keys.ids.isEmpty()) {
+                return new Page<>(List.of(), null);
+            }
+            Map<Integer, Task> byId = new HashMap<>();
+            session.createQuery(FIND_ALL_BY_IDS_QUERY, Task.class)
+                    .setHint(
+                            GraphSemantic.FETCH.getJpaHintName(),
+                            session.getEntityGraph(TaskFetchPlan.LIST.getGraphName())
+                    )
+                    .setParameterList("fIds", keys.ids)
+                    .list()
+                    .forEach(task -> byId.put(task.getId(), task));
+            List<Task> tasks = new ArrayList<>(keys.ids.size());
+            for (Integer id : keys.ids) {
+                /* Задача могла быть удалена между запросом идентификаторов и запросом задач */
+                Task task = byId.get(id);
+                if (task != null) {
+                    Hibernate.initialize(task.getCategories());
+                    tasks.add(task);
+                }
+            }
+            return new Page<>(tasks, keys.nextCursor);
+        });
+    }
+
+    /**
+     * Выполнить постраничную выборку представлений задач по ключу сортировки в два этапа:
+     * запрос идентификаторов задач страницы, затем проекция полей задач и названий категорий
+     * только для этих идентификаторов
+     *
+     * @param user       Пользователь, которому принадлежат задачи
+     * @param conditions Дополнительные условия выборки
+     * @param args       Параметры дополнительных условий
+     * @param sort       Порядок сортировки
+     * @param cursor     Курсор предыдущей страницы. null -- для первой страницы
+     * @param size       Максимальное количество задач на странице
+     * @return Страница представлений задач
+     */
+    private Page<TaskView> findViewPage(User user, List<String> conditions, Map<String, Object> args,
+                                        TaskSort sort, TaskCursor cursor, int size) {
+        return crudRepository.tx(session -> {
+            PageKeys keys = findPageKeys(session, conditions, args, sort, cursor, size);
+            if (keys.ids.isEmpty()) {
+                return new Page<>(List.of(), null);
+            }
+            Map<Integer, TaskRow> rows = findRows(session, keys.ids);
+            Map<Integer, List<String>> categoryNames = findCategoryNames(session, keys.ids);
+            return new Page<>(toViews(keys.ids, rows, categoryNames, user), keys.nextCursor);
+        });
+    }
+
+    /**
+     * Собрать представления задач в порядке идентификаторов. Задачи, удаленные между запросом
+     * идентификаторов и запросом полей, пропускаются
+     */
+    private static List<TaskView> toViews(List<Integer> ids, Map<Integer, TaskRow> rows,
+                                          Map<Integer, List<String>> categoryNames, User user) {
+        List<TaskView> views = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            TaskRow row = rows.get(id);
+            if (row != null) {
+                views.add(TaskView.of(row, user.getName(), categoryNames.getOrDefault(id, List.of())));
+            }
+        }
+        return views;
+    }
+
+    /**
+     * Собрать записи задач для экспорта в порядке идентификаторов. Задачи, удаленные между запросом
+     * идентификаторов и запросом полей, пропускаются
+     */
+    private static List<TaskRecord> toRecords(List<Integer> ids, Map<Integer, TaskRow> rows,
+                                              Map<Integer, List<String>> categoryNames) {
+        List<TaskRecord> records = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            TaskRow row = rows.get(id);
+            if (row != null) {
+                List<String> categories = categoryNames.getOrDefault(id, List.of());
+                records.add(new TaskRecord(row.getDescription(), row.getPriorityName(), categories, row.isDone()));
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Получить идентификаторы задач страницы в порядке сортировки и курсор следующей страницы.
+     * Запрос возвращает вместе с идентификаторами значения ключа сортировки, из которых строится
+     * курсор. Запрашивается на одну задачу больше размера страницы, чтобы определить наличие
+     * следующей страницы без отдельного запроса количества. Курсор, не подходящий к порядку
+     * сортировки, игнорируется (выбирается первая страница)
+     */
+    private PageKeys findPageKeys(Session session, List<String> conditions, Map<String, Object> args,
+                                  TaskSort sort, TaskCursor cursor, int size) {
+        List<String> where = new ArrayList<>(conditions);
+        Map<String, Object> params = new HashMap<>(args);
+        if (cursor != null && (!sort.hasRank() || cursor.getRank() != null)) {
+            try {
+                if (sort.hasRank()) {
+                    params.put("fRank", sort.parseRank(cursor.getRank()));
+                }
+                where.add(sort.keysetCondition());
+                params.put("fCreated", cursor.getCreated());
+                params.put("fId", cursor.getId());
+            } catch (IllegalArgumentException e) {
+                params.remove("fRank");
+            }
+        }
+        String query = sort.keysQuery()
+                + (where.isEmpty() ? "" : " WHERE " + String.join(" AND ", where))
+                + sort.orderBy();
+        var sq = session.createQuery(query, Object[].class);
+        for (Map.Entry<String, Object> arg : params.entrySet()) {
+            if (arg.getValue() instanceof Collection) {
+                sq.setParameterList(arg.getKey(), (Collection<?>) arg.getValue());
+            } else {
+                sq.setParameter(arg.getKey(), arg.getValue());
+            }
+        }
+        List<Object[]> rows = sq.setMaxResults(size + 1).list();
+        boolean hasNext = rows.size() > size;
+        List<Object[]> pageRows = hasNext ? rows.subList(0, size) : rows;
+        List<Integer> ids = new ArrayList<>(pageRows.size());
+        for (Object[] row : pageRows) {
+            ids.add((Integer) row[0]);
+        }
+        String nextCursor = null;
+        if (hasNext) {
+            Object[] last = pageRows.get(pageRows.size() - 1);
+            String rank = sort.hasRank() ? String.valueOf(last[2]) : null;
+            nextCursor = new TaskCursor(rank, (LocalDateTime) last[1], (Integer) last[0]).encode();
+        }
+        return new PageKeys(ids, nextCursor);
+    }
+
+    /**
+     * Получить проекции задач с передаваемыми идентификаторами
+     */
+    private Map<Integer, TaskRow> findRows(Session session, List<Integer> ids) {
+        Map<Integer, TaskRow> rows = new HashMap<>();
+        session.createQuery(FIND_ROWS_BY_IDS_QUERY, TaskRow.class)
+                .setParameterList("fIds", ids)
+                .list()
+                .forEach(row -> rows.put(row.getId(), row));
+        return rows;
+    }
+
+    /**
+     * Получить названия категорий задач с передаваемыми идентификаторами одним запросом
+     */
+    private Map<Integer, List<String>> findCategoryNames(Session session, List<Integer> ids) {
+        Map<Integer, List<String>> categoryNames = new HashMap<>();
+        session.createQuery(FIND_CATEGORY_NAMES_BY_IDS_QUERY, Object[].class)
+                .setParameterList("fIds", ids)
+                .list()
+                .forEach(row -> categoryNames
+                        .computeIfAbsent((Integer) row[0], id -> new ArrayList<>())
+                        .add((String) row[1]));
+        return categoryNames;
+    }
+
+    /**
+     * Найти идентификаторы задач полнотекстовым поиском, упорядоченные по релевантности.
+     * Запрашивается на один идентификатор больше размера страницы
+     */
+    private List<Integer> searchIdsFullText(Session session, User user, String query, int offset, int size) {
+        List<?> ids = session.createNativeQuery(SEARCH_IDS_BY_USER_QUERY)
+                .setParameter("fQuery", query)
+                .setParameter("fUserId", user.getId())
+                .setFirstResult(offset)
+                .setMaxResults(size + 1)
+                .list();
+        List<Integer> result = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            result.add(((Number) id).intValue());
+        }
+        return result;
+    }
+
+    /**
+     * Найти идентификаторы задач, описание которых содержит все слова запроса, от новых к старым.
+     * Запрашивается на один идентификатор больше размера страницы
+     */
+    private List<Integer> searchIdsLike(Session session, User user, List<String> words, int offset, int size) {
+        List<String> conditions = new ArrayList<>(List.of(USER_CONDITION));
+        Map<String, Object> args = new HashMap<>(Map.of("fUserId", user.getId()));
+        addWordConditions(words, conditions, args);
+        String query = FIND_PAGE_IDS_QUERY + " WHERE " + String.join(" AND ", conditions) + PAGE_ORDER;
+        var sq = session.createQuery(query, Integer.class);
+        args.forEach(sq::setParameter);
+        return sq.setFirstResult(offset).setMaxResults(size + 1).list();
+    }
+
+    /**
+     * Добавить условия вхождения каждого слова в описание задачи без учета регистра.
+     * Символы шаблона LIKE в словах экранируются
+     */
+    private static void addWordConditions(List<String> words, List<String> conditions, Map<String, Object> args) {
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i).replace("!", "!!").replace("%", "!%").replace("_", "!_");
+            conditions.add(String.format(LIKE_CONDITION, i));
+            args.put("fWord" + i, "%" + word + "%");
+        }
+    }
+
+    private boolean isFullTextSearch(Session session) {
+        Boolean result = fullTextSearch.get();
+        if (result == null) {
+            result = session.doReturningWork(
+                    connection -> POSTGRESQL.equals(connection.getMetaData().getDatabaseProductName())
+            );
+            fullTextSearch.set(result);
+        }
+        return result;
+    }
+
+    private static List<String> words(String query) {
+        List<String> result = new ArrayList<>();
+        if (query != null) {
+            for (String word : query.toLowerCase().split("\\s+")) {
+                if (!word.isEmpty()) {
+                    result.add(word);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Идентификаторы задач страницы и курсор следующей страницы
+     */
+    private static class PageKeys {
+
+        private final List<Integer> ids;
+
+        private final String nextCursor;
+
+        PageKeys(List<Integer> ids, String nextCursor) {
+            this.ids = ids;
+            this.nextCursor = nextCursor;
+        }
+    }
+
+    /**
+     * Собирает объект из идущих подряд строк проекции одной задачи, в которой идентификатор задачи --
+     * первый столбец, а название категории -- столбец categoryColumn (по строке на каждую категорию)
+     *
+     * @param <R> Тип собираемых объектов
+     */
+    private static class CategoryRowCollector<R> {
+
+        private final int categoryColumn;
+
+        private final BiFunction<Object[], List<String>, R> factory;
+
+        private final Consumer<R> consumer;
+
+        private Object[] current;
+
+        private final List<String> categories = new ArrayList<>();
+
+        CategoryRowCollector(int categoryColumn, BiFunction<Object[], List<String>, R> factory, Consumer<R> consumer) {
+            this.categoryColumn = categoryColumn;
+            this.factory = factory;
+            this.consumer = consumer;
+        }
+
+        void accept(Object[] row) {
+            if (current != null && !current[0].equals(row[0])) {
+                flush();
+            }
+            current = row;
+            if (row[categoryColumn] != null) {
+                categories.add((String) row[categoryColumn]);
+            }
+        }
+
+        void flush() {
+            if (current == null) {
+                return;
+            }
+            consumer.accept(factory.apply(current, List.copyOf(categories)));
+            current = null;
+            categories.clear();
+        }
+    }
 }
\ No newline at end of file
@@ -23,8 +23,7 @@ public class HibernateUserRepository implements UserRepository {
 
     private static final String FIND_BY_LOGIN_QUERY = "SELECT u FROM User u WHERE login = :fLogin";
 
-    private static final String FIND_BY_LOGIN_AND_PASSWORD_QUERY
-            = "SELECT u FROM User u WHERE login = :fLogin AND password = :fPassword";
+    private static final String FIND_MAX_ID_QUERY = "SELECT MAX(u.id) FROM User u";
 
     private static final String DELETE_QUERY = "DELETE FROM User WHERE id = :fId";
 
@@ -72,23 +71,14 @@ public class HibernateUserRepository implements UserRepository {
     }
 
     /**
-     * Получить один объект User из БД по значению полей login и password
+     * Получить наибольший id среди записей модели User в БД. Растет при добавлении пользователя
+     * любым экземпляром приложения
      *
-     * @param login    Логин пользователя в системе
-     * @param password Пароль пользователя в системе
-     * @return Optional для объекта User, если в БД существует запись для переданных значений login и password.
-     * Иначе -- Optional.empty()
+     * @return Наибольший id. 0, если в БД нет пользователей
      */
     @Override
-    public Optional<User> findByLoginAndPassword(String login, String password) {
-        return crudRepository.optional(
-                FIND_BY_LOGIN_AND_PASSWORD_QUERY,
-                User.class,
-                Map.of(
-                        "fLogin", login,
-                        "fPassword", password
-                )
-        );
+    public int findMaxId() {
+        return crudRepository.optional(FIND_MAX_ID_QUERY, Integer.class, Map.of()).orElse(0);
     }
 
     /**
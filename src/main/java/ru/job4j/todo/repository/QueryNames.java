@@ -0,0 +1,63 @@
+package ru.job4j.todo.repository;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сопоставляет тексты запросов HQL с именами констант *_QUERY репозиториев
+ * (напр., TaskRepository.FIND_ALL_QUERY) для использования в метриках и журнале
+ */
+public final class QueryNames {
+
+    public static final String COMMAND = "command";
+
+    public static final String DYNAMIC = "dynamic";
+
+    private static final String SUFFIX = "_QUERY";
+
+    private static final List<Class<?>> REPOSITORIES = List.of(
+            HibernateTaskRepository.class,
+            HibernateUserRepository.class,
+            HibernatePriorityRepository.class,
+            HibernateCategoryRepository.class
+    );
+
+    private static final Map<String, String> NAMES = collect();
+
+    private QueryNames() {
+    }
+
+    /**
+     * Получить имя константы для текста запроса
+     *
+     * @param query Текст запроса HQL
+     * @return Имя константы в виде РепозиторийБезПрефиксаHibernate.ИМЯ_QUERY. DYNAMIC, если запрос
+     * собран во время выполнения и не совпадает ни с одной константой
+     */
+    public static String of(String query) {
+        return NAMES.getOrDefault(query, DYNAMIC);
+    }
+
+    private static Map<String, String> collect() {
+        Map<String, String> names = new HashMap<>();
+        for (Class<?> repository : REPOSITORIES) {
+            String prefix = repository.getSimpleName().replaceFirst("^Hibernate", "") + ".";
+            for (Field field : repository.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers)
+                        && field.getType() == String.class && field.getName().endsWith(SUFFIX)) {
+                    try {
+                        field.setAccessible(true);
+                        names.putIfAbsent((String) field.get(null), prefix + field.getName());
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+        }
+        return Map.copyOf(names);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.job4j.todo.repository;
+
+import ru.job4j.todo.model.Task;
+
+/**
+ * План загрузки связей задачи: какие ассоциации Task загружаются вместе с задачей одним запросом.
+ * Каждому плану соответствует именованный граф сущности (см. NamedEntityGraph у Task),
+ * ассоциации вне графа остаются ленивыми
+ */
+public enum TaskFetchPlan {
+
+    /**
+     * Список задач: пользователь и приоритет. Категории догружаются пакетами (см. BatchSize у Task.categories)
+     */
+    LIST(Task.LIST_GRAPH),
+
+    /**
+     * Просмотр задачи: пользователь, приоритет и категории
+     */
+    DETAIL(Task.DETAIL_GRAPH),
+
+    /**
+     * Форма редактирования задачи: приоритет и категории, без пользователя
+     */
+    EDIT(Task.EDIT_GRAPH);
+
+    private final String graphName;
+
+    TaskFetchPlan(String graphName) {
+        this.graphName = graphName;
+    }
+
+    /**
+     * Получить имя графа сущности Task для плана загрузки
+     *
+     * @return Имя графа сущности
+     */
+    public String getGraphName() {
+        return graphName;
+    }
+}
@@ -1,12 +1,21 @@
 package ru.job4j.todo.repository;
 
+import ru.job4j.todo.dto.Page;
+import ru.job4j.todo.dto.TaskCursor;
+import ru.job4j.todo.dto.TaskFilter;
+import ru.job4j.todo.dto.TaskRecord;
+import ru.job4j.todo.dto.TaskText;
+import ru.job4j.todo.dto.TaskView;
 import ru.job4j.todo.model.Category;
 import ru.job4j.todo.model.Priority;
 import ru.job4j.todo.model.Task;
+import ru.job4j.todo.model.User;
 
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public interface TaskRepository {
 
@@ -14,10 +23,38 @@ public interface TaskRepository {
 
     List<Task> findAllByDone(boolean done);
 
+    List<Task> findAllByUser(User user);
+
+    List<Task> findAllByUserAndDone(User user, boolean done);
+
+    Page<Task> findPage(TaskCursor cursor, int size);
+
+    Page<Task> findPageByDone(boolean done, TaskCursor cursor, int size);
+
+    Page<Task> findPageByUser(User user, TaskCursor cursor, int size);
+
+    Page<Task> findPageByUserAndDone(User user, boolean done, TaskCursor cursor, int size);
+
+    Page<TaskView> findViewPageByUser(User user, TaskCursor cursor, int size);
+
+    Page<TaskView> findViewPageByUserAndDone(User user, boolean done, TaskCursor cursor, int size);
+
+    Page<TaskView> findViewPageByUser(User user, ZoneId userZone, TaskFilter filter, TaskSort sort, TaskCursor cursor, int size);
+
+    Page<TaskView> searchViewPageByUser(User user, String query, int offset, int size);
+
     Optional<Task> findById(int id);
 
+    Optional<Task> findById(int id, TaskFetchPlan plan);
+
+    void scrollRecordsByUser(User user, int fetchSize, Consumer<TaskRecord> consumer);
+
+    void scrollTexts(int fetchSize, Consumer<TaskText> consumer);
+
     Optional<Task> add(Task task);
 
+    Optional<List<Task>> addAll(List<Task> tasks);
+
     boolean update(Task task);
 
     boolean update(int id, String description, Priority priority, Set<Category> categories);
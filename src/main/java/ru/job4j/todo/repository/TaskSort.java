@@ -0,0 +1,107 @@
+package ru.job4j.todo.repository;
+
+import java.util.function.Function;
+
+/**
+ * Порядок сортировки списка задач. Каждый порядок заканчивается ключом (created, id), поэтому
+ * однозначен и допускает постраничную выборку по ключу. Порядок может начинаться с дополнительного
+ * ключа ранга (признак выполнения, позиция приоритета), значение которого хранится в курсоре
+ */
+public enum TaskSort {
+
+    /**
+     * Сначала новые задачи
+     */
+    CREATED_DESC(null, "", false, null),
+
+    /**
+     * Сначала старые задачи
+     */
+    CREATED_ASC(null, "", true, null),
+
+    /**
+     * Сначала невыполненные задачи, внутри -- сначала новые
+     */
+    DONE("t.done", "", false, Boolean::valueOf),
+
+    /**
+     * По позиции приоритета (задачи без приоритета -- в конце), внутри -- сначала новые.
+     * Позиция хранится в самой задаче (см. Task.priorityPosition), поэтому порядок обслуживается индексом
+     */
+    PRIORITY("t.priorityPosition", "", false, Integer::valueOf);
+
+    private final String rankExpression;
+
+    private final String join;
+
+    private final boolean ascending;
+
+    private final Function<String, Object> rankParser;
+
+    TaskSort(String rankExpression, String join, boolean ascending, Function<String, Object> rankParser) {
+        this.rankExpression = rankExpression;
+        this.join = join;
+        this.ascending = ascending;
+        this.rankParser = rankParser;
+    }
+
+    /**
+     * Получить запрос ключей сортировки задач: идентификатор, дата создания и, если есть, ранг
+     *
+     * @return Начало запроса HQL без условий
+     */
+    String keysQuery() {
+        return "SELECT t.id, t.created" + (hasRank() ? ", " + rankExpression : "") + " FROM Task t" + join;
+    }
+
+    /**
+     * Получить условие выборки задач, следующих за курсором в этом порядке.
+     * Каждая часть условия, кроме дизъюнкции, содержит избыточную границу по первому ключу
+     * (t.created <= :fCreated, ранг >= :fRank): с ней PostgreSQL начинает просмотр индекса с позиции курсора,
+     * а не фильтрует записи с начала индекса
+     *
+     * @return Условие HQL с параметрами fCreated, fId и, если есть ранг, fRank
+     */
+    String keysetCondition() {
+        String comparison = ascending ? ">" : "<";
+        String createdCondition = String.format(
+                "(t.created %1$s= :fCreated AND (t.created %1$s :fCreated OR (t.created = :fCreated AND t.id %1$s :fId)))",
+                comparison
+        );
+        if (!hasRank()) {
+            return createdCondition;
+        }
+        return String.format(
+                "(%1$s >= :fRank AND (%1$s > :fRank OR (%1$s = :fRank AND %2$s)))", rankExpression, createdCondition
+        );
+    }
+
+    /**
+     * Получить выражение ORDER BY для этого порядка
+     *
+     * @return Выражение ORDER BY, начинающееся с пробела
+     */
+    String orderBy() {
+        String direction = ascending ? "ASC" : "DESC";
+        return " ORDER BY " + (hasRank() ? rankExpression + " ASC, " : "")
+                + "t.created " + direction + ", t.id " + direction;
+    }
+
+    boolean hasRank() {
+        return rankExpression != null;
+    }
+
+    /**
+     * Разобрать значение ранга из курсора
+     *
+     * @param value Строковое значение ранга
+     * @return Значение параметра fRank
+     * @throws IllegalArgumentException Если значение некорректно для этого порядка
+     */
+    Object parseRank(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Курсор не содержит ранга для сортировки " + name());
+        }
+        return rankParser.apply(value);
+    }
+}
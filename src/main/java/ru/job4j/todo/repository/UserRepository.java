@@ -13,7 +13,7 @@ public interface UserRepository {
 
     Optional<User> findByLogin(String login);
 
-    Optional<User> findByLoginAndPassword(String login, String password);
+    int findMaxId();
 
     Optional<User> add(User user);
 
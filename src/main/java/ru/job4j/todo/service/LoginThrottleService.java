@@ -0,0 +1,6 @@
+package ru.job4j.todo.service;
+
+public interface LoginThrottleService {
+
+    boolean tryAcquire(String login, String address);
+}
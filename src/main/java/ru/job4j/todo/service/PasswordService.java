@@ -0,0 +1,10 @@
+package ru.job4j.todo.service;
+
+public interface PasswordService {
+
+    String hash(String password);
+
+    boolean matches(String password, String hash);
+
+    boolean needsRehash(String hash);
+}
@@ -1,21 +1,37 @@
 package ru.job4j.todo.service;
 
-import lombok.AllArgsConstructor;
+import net.jcip.annotations.ThreadSafe;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.job4j.todo.model.Category;
 import ru.job4j.todo.repository.CategoryRepository;
+import ru.job4j.todo.util.ReferenceDataCache;
 
 import java.util.*;
 
 /**
- * Сервис, осуществляющий доступ к данным объектов модели Category в репозитории
+ * Сервис, осуществляющий доступ к данным объектов модели Category в репозитории.
+ * Категории кэшируются в памяти процесса, кэш сбрасывается при любом изменении через этот сервис
+ * и по истечении reference-data.cache.ttl-seconds (изменения, сделанные на других узлах)
  */
 @Service
-@AllArgsConstructor
+@ThreadSafe
 public class SimpleCategoryService implements CategoryService {
 
+    private static final int MAX_CACHE_SIZE = 1000;
+
     private final CategoryRepository repository;
 
+    private final ReferenceDataCache<Category> cache;
+
+    public SimpleCategoryService(
+            CategoryRepository repository,
+            @Value("${reference-data.cache.ttl-seconds:60}") long cacheTtl
+    ) {
+        this.repository = repository;
+        this.cache = new ReferenceDataCache<>(repository::findAll, Category::getId, MAX_CACHE_SIZE, cacheTtl);
+    }
+
     /**
      * Получить все объекты для модели Category из репозитория
      *
@@ -23,7 +39,7 @@ public class SimpleCategoryService implements CategoryService {
      */
     @Override
     public List<Category> findAll() {
-        return repository.findAll();
+        return cache.values();
     }
 
     /**
@@ -35,7 +51,9 @@ public class SimpleCategoryService implements CategoryService {
      */
     @Override
     public Optional<Category> findById(int id) {
-        return repository.findById(id);
+        return cache.entries()
+                .map(entries -> entries.get(id))
+                .or(() -> repository.findById(id));
     }
 
     /**
@@ -46,7 +64,9 @@ public class SimpleCategoryService implements CategoryService {
      */
     @Override
     public Optional<Category> add(Category category) {
-        return repository.add(category);
+        Optional<Category> result = repository.add(category);
+        cache.invalidate();
+        return result;
     }
 
     /**
@@ -57,7 +77,9 @@ public class SimpleCategoryService implements CategoryService {
      */
     @Override
     public boolean update(Category category) {
-        return repository.update(category);
+        boolean result = repository.update(category);
+        cache.invalidate();
+        return result;
     }
 
     /**
@@ -68,7 +90,9 @@ public class SimpleCategoryService implements CategoryService {
      */
     @Override
     public boolean delete(Category category) {
-        return repository.delete(category);
+        boolean result = repository.delete(category);
+        cache.invalidate();
+        return result;
     }
 
     /**
@@ -79,17 +103,32 @@ public class SimpleCategoryService implements CategoryService {
      */
     @Override
     public boolean deleteById(int id) {
-        return repository.deleteById(id);
+        boolean result = repository.deleteById(id);
+        cache.invalidate();
+        return result;
     }
 
     /**
-     * Найти все категории по передаваемому массиву идентификаторов
+     * Найти все категории по передаваемому массиву идентификаторов.
+     * Если хотя бы одна категория отсутствует в кэше, выборка выполняется через репозиторий
      *
      * @param ids Массив идентификаторов объектов Category
      * @return Найденный набор категорий
      */
     @Override
     public Set<Category> findAllByIds(int[] ids) {
+        Optional<Map<Integer, Category>> entries = cache.entries();
+        if (entries.isPresent()) {
+            Set<Category> result = new HashSet<>();
+            for (int id : ids) {
+                Category category = entries.get().get(id);
+                if (category == null) {
+                    return repository.findAllByIds(ids);
+                }
+                result.add(category);
+            }
+            return result;
+        }
         return repository.findAllByIds(ids);
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package ru.job4j.todo.service;
+
+import net.jcip.annotations.ThreadSafe;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.job4j.todo.util.TokenBucketRateLimiter;
+
+/**
+ * Сервис ограничения частоты попыток входа. Попытки ограничиваются отдельно для каждого
+ * IP-адреса и для каждого логина (см. TokenBucketRateLimiter), чтобы подбор паролей
+ * отсекался до обращения к БД и проверки хеша пароля. Состояние хранится в памяти процесса
+ * и не разделяется между узлами приложения
+ */
+@Service
+@ThreadSafe
+public class SimpleLoginThrottleService implements LoginThrottleService {
+
+    private final TokenBucketRateLimiter addressLimiter;
+
+    private final TokenBucketRateLimiter loginLimiter;
+
+    public SimpleLoginThrottleService(
+            @Value("${security.login.per-address.capacity:20}") int addressCapacity,
+            @Value("${security.login.per-address.refill-per-minute:20}") int addressRefill,
+            @Value("${security.login.per-login.capacity:5}") int loginCapacity,
+            @Value("${security.login.per-login.refill-per-minute:5}") int loginRefill,
+            @Value("${security.login.max-tracked-keys:10000}") int maxKeys
+    ) {
+        this.addressLimiter = new TokenBucketRateLimiter(addressCapacity, addressRefill, maxKeys);
+        this.loginLimiter = new TokenBucketRateLimiter(loginCapacity, loginRefill, maxKeys);
+    }
+
+    /**
+     * Зарегистрировать попытку входа. Попытка, отклоненная по IP-адресу, не расходует
+     * попытки логина, чтобы перебор с одного адреса не блокировал вход владельцу логина
+     *
+     * @param login   Логин, под которым выполняется вход
+     * @param address IP-адрес клиента
+     * @return true, если попытка разрешена. Иначе -- false
+     */
+    @Override
+    public boolean tryAcquire(String login, String address) {
+        return addressLimiter.tryAcquire(address) && loginLimiter.tryAcquire(login == null ? "" : login);
+    }
+}
@@ -0,0 +1,144 @@
+package ru.job4j.todo.service;
+
+import net.jcip.annotations.ThreadSafe;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Сервис хеширования и проверки паролей (BCrypt). Стоимость хеширования задается свойством
+ * security.password.bcrypt-strength. Хеширование и проверка выполняются в отдельном пуле потоков
+ * ограниченного размера с ограниченной очередью: при всплеске входов лишние запросы сразу
+ * отклоняются (RejectedExecutionException), а не занимают процессор, нужный остальным запросам
+ */
+@Service
+@ThreadSafe
+public class SimplePasswordService implements PasswordService, DisposableBean {
+
+    private static final String BCRYPT_PREFIX = "$2";
+
+    private static final int BCRYPT_LENGTH = 60;
+
+    private final BCryptPasswordEncoder encoder;
+
+    private final ThreadPoolExecutor executor;
+
+    private final long timeout;
+
+    /**
+     * Хеш случайного пароля. Проверяется вместо хеша отсутствующего пользователя, чтобы время
+     * ответа не выдавало, существует ли логин
+     */
+    private final String unknownUserHash;
+
+    public SimplePasswordService(
+            @Value("${security.password.bcrypt-strength:10}") int strength,
+            @Value("${security.password.threads:4}") int threads,
+            @Value("${security.password.queue-capacity:100}") int queueCapacity,
+            @Value("${security.password.timeout-ms:5000}") long timeout
+    ) {
+        this.encoder = new BCryptPasswordEncoder(strength);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.timeout = timeout;
+        this.unknownUserHash = encoder.encode(UUID.randomUUID().toString());
+    }
+
+    /**
+     * Получить хеш пароля
+     *
+     * @param password Пароль
+     * @return Хеш BCrypt с текущей стоимостью хеширования
+     * @throws RejectedExecutionException Если пул хеширования перегружен
+     */
+    @Override
+    public String hash(String password) {
+        return compute(() -> encoder.encode(password));
+    }
+
+    /**
+     * Проверить пароль. Хранимое значение, не являющееся хешем BCrypt, считается паролем,
+     * сохраненным до перехода на хеширование, и сравнивается с паролем напрямую
+     *
+     * @param password Проверяемый пароль
+     * @param hash     Хранимый хеш пароля. null, если пользователь не найден
+     * @return true, если пароль соответствует хешу. Иначе -- false
+     * @throws RejectedExecutionException Если пул хеширования перегружен
+     */
+    @Override
+    public boolean matches(String password, String hash) {
+        if (password == null) {
+            return false;
+        }
+        if (hash == null) {
+            compute(() -> encoder.matches(password, unknownUserHash));
+            return false;
+        }
+        if (!isBcrypt(hash)) {
+            return MessageDigest.isEqual(
+                    password.getBytes(StandardCharsets.UTF_8), hash.getBytes(StandardCharsets.UTF_8)
+            );
+        }
+        return compute(() -> encoder.matches(password, hash));
+    }
+
+    /**
+     * Проверить, нужно ли пересчитать хранимый хеш пароля: пароль хранится без хеширования
+     * или захеширован со стоимостью меньше текущей
+     *
+     * @param hash Хранимый хеш пароля
+     * @return true, если хеш нужно пересчитать. Иначе -- false
+     */
+    @Override
+    public boolean needsRehash(String hash) {
+        return !isBcrypt(hash) || encoder.upgradeEncoding(hash);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T compute(Callable<T> task) {
+        Future<T> future = executor.submit(task);
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new RejectedExecutionException("Превышено время ожидания проверки пароля", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Проверка пароля прервана", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static boolean isBcrypt(String hash) {
+        return hash != null && hash.length() == BCRYPT_LENGTH && hash.startsWith(BCRYPT_PREFIX);
+    }
+}
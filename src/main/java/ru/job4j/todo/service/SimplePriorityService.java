@@ -1,21 +1,37 @@
 package ru.job4j.todo.service;
 
-import lombok.AllArgsConstructor;
+import net.jcip.annotations.ThreadSafe;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.job4j.todo.model.Priority;
 import ru.job4j.todo.repository.PriorityRepository;
+import ru.job4j.todo.util.ReferenceDataCache;
 
 import java.util.List;
 import java.util.Optional;
 
 /**
- * Сервис, осуществляющий доступ к данным объектов модели Priority в репозитории
+ * Сервис, осуществляющий доступ к данным объектов модели Priority в репозитории.
+ * Приоритеты кэшируются в памяти процесса, кэш сбрасывается при любом изменении через этот сервис
+ * и по истечении reference-data.cache.ttl-seconds (изменения, сделанные на других узлах)
  */
 @Service
-@AllArgsConstructor
+@ThreadSafe
 public class SimplePriorityService implements PriorityService {
 
-    private PriorityRepository repository;
+    private static final int MAX_CACHE_SIZE = 1000;
+
+    private final PriorityRepository repository;
+
+    private final ReferenceDataCache<Priority> cache;
+
+    public SimplePriorityService(
+            PriorityRepository repository,
+            @Value("${reference-data.cache.ttl-seconds:60}") long cacheTtl
+    ) {
+        this.repository = repository;
+        this.cache = new ReferenceDataCache<>(repository::findAll, Priority::getId, MAX_CACHE_SIZE, cacheTtl);
+    }
 
     /**
      * Получить все объекты для модели Priority из репозитория
@@ -24,7 +40,7 @@ public class SimplePriorityService implements PriorityService {
      */
     @Override
     public List<Priority> findAll() {
-        return repository.findAll();
+        return cache.values();
     }
 
     /**
@@ -36,7 +52,9 @@ public class SimplePriorityService implements PriorityService {
      */
     @Override
     public Optional<Priority> findById(int id) {
-        return repository.findById(id);
+        return cache.entries()
+                .map(entries -> entries.get(id))
+                .or(() -> repository.findById(id));
     }
 
     /**
@@ -47,7 +65,9 @@ public class SimplePriorityService implements PriorityService {
      */
     @Override
     public Optional<Priority> add(Priority priority) {
-        return repository.add(priority);
+        Optional<Priority> result = repository.add(priority);
+        cache.invalidate();
+        return result;
     }
 
     /**
@@ -58,7 +78,9 @@ public class SimplePriorityService implements PriorityService {
      */
     @Override
     public boolean update(Priority priority) {
-        return repository.update(priority);
+        boolean result = repository.update(priority);
+        cache.invalidate();
+        return result;
     }
 
     /**
@@ -69,7 +91,9 @@ public class SimplePriorityService implements PriorityService {
      */
     @Override
     public boolean delete(Priority priority) {
-        return repository.delete(priority);
+        boolean result = repository.delete(priority);
+        cache.invalidate();
+        return result;
     }
 
     /**
@@ -80,6 +104,8 @@ public class SimplePriorityService implements PriorityService {
      */
     @Override
     public boolean deleteById(int id) {
-        return repository.deleteById(id);
+        boolean result = repository.deleteById(id);
+        cache.invalidate();
+        return result;
     }
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package ru.job4j.todo.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.AllArgsConstructor;
+import net.jcip.annotations.ThreadSafe;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+import ru.job4j.todo.repository.QueryNames;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Сервис, предоставляющий статистику работы Hibernate (требует hibernate.generate_statistics = true)
+ * и пула соединений с БД
+ */
+@Service
+@ThreadSafe
+@AllArgsConstructor
+public class SimpleStatisticsService implements StatisticsService {
+
+    private final SessionFactory sf;
+
+    private final HikariDataSource dataSource;
+
+    /**
+     * Получить статистику попаданий и промахов кэша второго уровня и кэша запросов
+     *
+     * @return Общие счетчики кэшей и счетчики по каждому региону кэша второго уровня
+     */
+    @Override
+    public Map<String, Object> cacheStatistics() {
+        Statistics statistics = sf.getStatistics();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        result.put("secondLevelCacheHits", statistics.getSecondLevelCacheHitCount());
+        result.put("secondLevelCacheMisses", statistics.getSecondLevelCacheMissCount());
+        result.put("secondLevelCachePuts", statistics.getSecondLevelCachePutCount());
+        result.put("queryCacheHits", statistics.getQueryCacheHitCount());
+        result.put("queryCacheMisses", statistics.getQueryCacheMissCount());
+        result.put("queryCachePuts", statistics.getQueryCachePutCount());
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                regions.put(regionName, Map.of(
+                        "hits", region.getHitCount(),
+                        "misses", region.getMissCount(),
+                        "puts", region.getPutCount(),
+                        "elementsInMemory", region.getElementCountInMemory()
+                ));
+            }
+        }
+        result.put("regions", regions);
+        return result;
+    }
+
+    /**
+     * Получить текущее состояние пула соединений с БД
+     *
+     * @return Количество активных, свободных и всех соединений, количество потоков, ожидающих соединение,
+     * и настройки размера пула
+     */
+    @Override
+    public Map<String, Object> poolStatistics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("maximumPoolSize", dataSource.getMaximumPoolSize());
+        result.put("minimumIdle", dataSource.getMinimumIdle());
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool != null) {
+            result.put("active", pool.getActiveConnections());
+            result.put("idle", pool.getIdleConnections());
+            result.put("total", pool.getTotalConnections());
+            result.put("waiting", pool.getThreadsAwaitingConnection());
+        }
+        return result;
+    }
+
+    /**
+     * Получить запросы HQL с наибольшим суммарным временем выполнения
+     *
+     * @param top Максимальное количество запросов
+     * @return Список запросов по убыванию суммарного времени: имя константы запроса, текст,
+     * количество выполнений, суммарное, среднее и максимальное время (мс), количество строк
+     */
+    @Override
+    public List<Map<String, Object>> topQueries(int top) {
+        Statistics statistics = sf.getStatistics();
+        return Arrays.stream(statistics.getQueries())
+                .map(query -> Map.entry(query, statistics.getQueryStatistics(query)))
+                .sorted(Comparator.comparingLong(
+                        (Map.Entry<String, QueryStatistics> entry) -> entry.getValue().getExecutionTotalTime()
+                ).reversed())
+                .limit(top)
+                .map(entry -> {
+                    QueryStatistics query = entry.getValue();
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("name", QueryNames.of(entry.getKey()));
+                    result.put("query", entry.getKey());
+                    result.put("executions", query.getExecutionCount());
+                    result.put("totalTimeMs", query.getExecutionTotalTime());
+                    result.put("avgTimeMs", query.getExecutionAvgTime());
+                    result.put("maxTimeMs", query.getExecutionMaxTime());
+                    result.put("rows", query.getExecutionRowCount());
+                    return result;
+                })
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,55 @@
+package ru.job4j.todo.service;
+
+import net.jcip.annotations.ThreadSafe;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.repository.TaskRepository;
+import ru.job4j.todo.transfer.TaskRecordWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Сервис экспорта задач. Задачи читаются из репозитория пакетами по fetchSize и сразу передаются писателю,
+ * поэтому объем используемой памяти не зависит от количества задач. Соединение с БД занято только
+ * на время чтения пакета, а не на все время передачи данных клиенту
+ */
+@Service
+@ThreadSafe
+public class SimpleTaskExportService implements TaskExportService {
+
+    private final TaskRepository repository;
+
+    private final int fetchSize;
+
+    public SimpleTaskExportService(
+            TaskRepository repository,
+            @Value("${tasks.export.fetch-size:1000}") int fetchSize
+    ) {
+        this.repository = repository;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Экспортировать все задачи пользователя в порядке создания
+     *
+     * @param writer Писатель записей экспортируемых задач
+     * @param user   Пользователь, задачи которого нужно экспортировать
+     * @throws IOException В случае ошибки записи данных
+     */
+    @Override
+    public void exportTasks(TaskRecordWriter writer, User user) throws IOException {
+        try {
+            repository.scrollRecordsByUser(user, fetchSize, record -> {
+                try {
+                    writer.write(record);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
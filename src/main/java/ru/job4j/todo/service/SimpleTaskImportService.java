@@ -0,0 +1,178 @@
+package ru.job4j.todo.service;
+
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.job4j.todo.dto.ImportReport;
+import ru.job4j.todo.dto.TaskRecord;
+import ru.job4j.todo.model.Category;
+import ru.job4j.todo.model.Priority;
+import ru.job4j.todo.model.Task;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.transfer.TaskRecordReader;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Сервис импорта задач. Записи читаются потоком и сохраняются пакетами через TaskService.addAll,
+ * каждый пакет -- в собственной транзакции. Ошибка сохранения пакета не отменяет уже сохраненные пакеты.
+ * После каждого пакета текущее состояние отчета передается обработчику хода импорта
+ */
+@Service
+@ThreadSafe
+public class SimpleTaskImportService implements TaskImportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SimpleTaskImportService.class);
+
+    private final TaskService taskService;
+
+    private final PriorityService priorityService;
+
+    private final CategoryService categoryService;
+
+    private final int chunkSize;
+
+    public SimpleTaskImportService(
+            TaskService taskService,
+            PriorityService priorityService,
+            CategoryService categoryService,
+            @Value("${tasks.import.chunk-size:500}") int chunkSize
+    ) {
+        this.taskService = taskService;
+        this.priorityService = priorityService;
+        this.categoryService = categoryService;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Импортировать задачи пользователя. Ход импорта записывается в журнал на уровне DEBUG
+     *
+     * @param reader Читатель записей импортируемых задач
+     * @param user   Пользователь, которому будут принадлежать задачи
+     * @return Отчет об импорте
+     * @throws IOException           В случае ошибки чтения данных
+     * @throws IllegalStateException В случае, если данные в целом имеют неверный формат
+     */
+    @Override
+    public ImportReport importTasks(TaskRecordReader reader, User user) throws IOException {
+        return importTasks(reader, user, report -> LOG.debug(
+                "Импорт задач пользователя {}: прочитано {}, сохранено {}, отклонено {}",
+                user.getLogin(), report.getRead(), report.getImported(), report.getRejected()
+        ));
+    }
+
+    /**
+     * Импортировать задачи пользователя. Приоритеты и категории загружаются один раз на весь импорт
+     * и сопоставляются с записями по названию без учета регистра. Запись без приоритета
+     * импортируется как задача без приоритета
+     *
+     * @param reader   Читатель записей импортируемых задач
+     * @param user     Пользователь, которому будут принадлежать задачи
+     * @param progress Обработчик хода импорта. Вызывается после сохранения каждого пакета
+     *                 с отчетом об импорте на этот момент; не должен изменять отчет
+     * @return Отчет об импорте
+     * @throws IOException           В случае ошибки чтения данных
+     * @throws IllegalStateException В случае, если данные в целом имеют неверный формат
+     */
+    @Override
+    public ImportReport importTasks(TaskRecordReader reader, User user, Consumer<ImportReport> progress)
+            throws IOException {
+        Map<String, Priority> priorities = byName(priorityService.findAll(), Priority::getName);
+        Map<String, Category> categories = byName(categoryService.findAll(), Category::getName);
+        ImportReport report = new ImportReport();
+        List<Task> chunk = new ArrayList<>(chunkSize);
+        int chunkFirstLine = 0;
+        Optional<TaskRecord> record = nextRecord(reader, report);
+        while (record.isPresent()) {
+            report.setRead(report.getRead() + 1);
+            try {
+                Task task = toTask(record.get(), priorities, categories, user);
+                if (chunk.isEmpty()) {
+                    chunkFirstLine = reader.getLineNumber();
+                }
+                chunk.add(task);
+            } catch (IllegalArgumentException e) {
+                reject(report, reader.getLineNumber(), e.getMessage());
+            }
+            if (chunk.size() == chunkSize) {
+                save(chunk, chunkFirstLine, reader.getLineNumber(), report);
+                progress.accept(report);
+            }
+            record = nextRecord(reader, report);
+        }
+        if (!chunk.isEmpty()) {
+            save(chunk, chunkFirstLine, reader.getLineNumber(), report);
+            progress.accept(report);
+        }
+        return report;
+    }
+
+    /**
+     * Прочитать следующую корректную запись. Некорректные строки пропускаются с отметкой в отчете
+     *
+     * @return Optional записи. Optional.empty(), если данные закончились
+     */
+    private Optional<TaskRecord> nextRecord(TaskRecordReader reader, ImportReport report) throws IOException {
+        while (true) {
+            try {
+                return reader.next();
+            } catch (IllegalArgumentException e) {
+                report.setRead(report.getRead() + 1);
+                reject(report, reader.getLineNumber(), e.getMessage());
+            }
+        }
+    }
+
+    private void save(List<Task> chunk, int firstLine, int lastLine, ImportReport report) {
+        report.setChunks(report.getChunks() + 1);
+        if (taskService.addAll(chunk).isPresent()) {
+            report.setImported(report.getImported() + chunk.size());
+        } else {
+            report.setRejected(report.getRejected() + chunk.size());
+            report.addError(String.format("Строки %d-%d: не удалось сохранить пакет задач", firstLine, lastLine));
+        }
+        chunk.clear();
+    }
+
+    private void reject(ImportReport report, int line, String reason) {
+        report.setRejected(report.getRejected() + 1);
+        report.addError(String.format("Строка %d: %s", line, reason));
+    }
+
+    private Task toTask(TaskRecord record, Map<String, Priority> priorities,
+                        Map<String, Category> categories, User user) {
+        if (record.getDescription().isBlank()) {
+            throw new IllegalArgumentException("Не указано описание задачи");
+        }
+        Priority priority = null;
+        if (record.getPriority() != null && !record.getPriority().isBlank()) {
+            priority = priorities.get(record.getPriority().trim().toLowerCase());
+            if (priority == null) {
+                throw new IllegalArgumentException(String.format(
+                        "Приоритет \"%s\" не существует", record.getPriority()
+                ));
+            }
+        }
+        Set<Category> taskCategories = new HashSet<>();
+        for (String name : record.getCategories()) {
+            Category category = categories.get(name.trim().toLowerCase());
+            if (category == null) {
+                throw new IllegalArgumentException(String.format("Категория \"%s\" не существует", name));
+            }
+            taskCategories.add(category);
+        }
+        return new Task(0, record.getDescription(), null, record.isDone(), user, priority, taskCategories);
+    }
+
+    private static <T> Map<String, T> byName(List<T> items, Function<T, String> nameFunction) {
+        return items.stream().collect(Collectors.toMap(
+                item -> nameFunction.apply(item).trim().toLowerCase(), Function.identity(), (first, second) -> first
+        ));
+    }
+}
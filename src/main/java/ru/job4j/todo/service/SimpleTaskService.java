@@ -3,54 +3,71 @@ package ru.job4j.todo.service;
 import lombok.AllArgsConstructor;
 import net.jcip.annotations.ThreadSafe;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.job4j.todo.dto.Page;
+import ru.job4j.todo.dto.TaskCursor;
+import ru.job4j.todo.dto.TaskFilter;
+import ru.job4j.todo.dto.TaskView;
+import ru.job4j.todo.model.Category;
 import ru.job4j.todo.model.Priority;
 import ru.job4j.todo.model.Task;
 import ru.job4j.todo.model.User;
+import ru.job4j.todo.repository.TaskFetchPlan;
 import ru.job4j.todo.repository.TaskRepository;
-import ru.job4j.todo.util.DateAdjustment;
+import ru.job4j.todo.repository.TaskSort;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
- * Сервис, осуществляющий доступ к данным объектов модели Task в репозитории
+ * Сервис, осуществляющий доступ к данным объектов модели Task в репозитории.
+ * Каждый метод, кроме add и addAll, выполняется в одной транзакции с одной сессией Hibernate.
+ * Методы add и addAll не транзакционны, чтобы ошибка сохранения откатывала только собственную
+ * транзакцию репозитория и возвращалась как Optional.empty()
+ * Изменения описаний и категорий задач передаются в индекс подсказок (TaskSuggestService)
+ * после фиксации транзакции
  */
 @Service
 @ThreadSafe
 @AllArgsConstructor
 public class SimpleTaskService implements TaskService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final TaskRepository repository;
 
     private final PriorityService priorityService;
 
     private final CategoryService categoryService;
 
+    private final TaskSuggestService suggestService;
+
     /**
      * Получить все объекты для модели Task из репозитория
      *
      * @return Список задач. Пустой список, если ничего не найдено
      */
     @Override
+    @Transactional(readOnly = true)
     public List<Task> findAll() {
         return repository.findAll();
     }
 
     /**
-     * Получить все объекты для модели Task из репозитория с учетом часового пояса
+     * Получить представления всех задач из репозитория
      *
-     * @param zoneId Идентификатор часового пояса
-     * @return Список задач. Пустой список, если ничего не найдено
+     * @return Список представлений задач. Пустой список, если ничего не найдено
      */
     @Override
-    public List<Task> findAll(ZoneId zoneId) {
-        List<Task> tasks = findAll();
-        tasks.forEach(task -> task.setCreated(
-                DateAdjustment.adjustByZoneId(task.getCreated(), zoneId))
-        );
-        return tasks;
+    @Transactional(readOnly = true)
+    public List<TaskView> findAllViews() {
+        return toViews(findAll());
     }
 
     /**
@@ -60,25 +77,140 @@ public class SimpleTaskService implements TaskService {
      * @return Список задач. Пустой список, если ничего не найдено
      */
     @Override
+    @Transactional(readOnly = true)
     public List<Task> findAllByDone(boolean done) {
         return repository.findAllByDone(done);
     }
 
     /**
-     * Получить все объекты для модели Task из репозитория, отфильтрованные по передаваемому значению
-     * с учетом часового пояса
+     * Получить представления всех задач из репозитория, отфильтрованных по передаваемому значению done
      *
-     * @param done   Значение поля done для объектов Task (true -- для выполненных, false -- для невыполненных)
-     * @param zoneId Идентификатор часового пояса
+     * @param done Значение поля done для объектов Task (true -- для выполненных, false -- для невыполненных)
+     * @return Список представлений задач. Пустой список, если ничего не найдено
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskView> findAllViewsByDone(boolean done) {
+        return toViews(findAllByDone(done));
+    }
+
+    /**
+     * Получить все объекты для модели Task из репозитория, принадлежащие передаваемому пользователю
+     *
+     * @param user Пользователь, которому принадлежат задачи
      * @return Список задач. Пустой список, если ничего не найдено
      */
     @Override
-    public List<Task> findAllByDone(boolean done, ZoneId zoneId) {
-        List<Task> tasks = findAllByDone(done);
-        tasks.forEach(task -> task.setCreated(
-                DateAdjustment.adjustByZoneId(task.getCreated(), zoneId))
-        );
-        return tasks;
+    @Transactional(readOnly = true)
+    public List<Task> findAllByUser(User user) {
+        return repository.findAllByUser(user);
+    }
+
+    /**
+     * Получить все объекты для модели Task из репозитория, принадлежащие передаваемому пользователю
+     * и отфильтрованные по передаваемому значению done
+     *
+     * @param user Пользователь, которому принадлежат задачи
+     * @param done Значение поля done для объектов Task (true -- для выполненных, false -- для невыполненных)
+     * @return Список задач. Пустой список, если ничего не найдено
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Task> findAllByUserAndDone(User user, boolean done) {
+        return repository.findAllByUserAndDone(user, done);
+    }
+
+    /**
+     * Получить страницу задач из репозитория
+     *
+     * @param cursor Курсор, указывающий на последнюю задачу предыдущей страницы. null -- для первой страницы
+     * @param size   Желаемое количество задач на странице. Ограничивается диапазоном [1, MAX_PAGE_SIZE]
+     * @return Страница представлений задач
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TaskView> findPage(TaskCursor cursor, int size) {
+        return toViews(repository.findPage(cursor, limitPageSize(size)));
+    }
+
+    /**
+     * Получить страницу задач из репозитория, отфильтрованных по передаваемому значению done
+     *
+     * @param done   Значение поля done для объектов Task (true -- для выполненных, false -- для невыполненных)
+     * @param cursor Курсор, указывающий на последнюю задачу предыдущей страницы. null -- для первой страницы
+     * @param size   Желаемое количество задач на странице. Ограничивается диапазоном [1, MAX_PAGE_SIZE]
+     * @return Страница представлений задач
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TaskView> findPageByDone(boolean done, TaskCursor cursor, int size) {
+        return toViews(repository.findPageByDone(done, cursor, limitPageSize(size)));
+    }
+
+    /**
+     * Получить страницу задач передаваемого пользователя из репозитория. Задачи читаются
+     * проекцией, без загрузки сущностей
+     *
+     * @param user   Пользователь, которому принадлежат задачи
+     * @param cursor Курсор, указывающий на последнюю задачу предыдущей страницы. null -- для первой страницы
+     * @param size   Желаемое количество задач на странице. Ограничивается диапазоном [1, MAX_PAGE_SIZE]
+     * @return Страница представлений задач
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TaskView> findPageByUser(User user, TaskCursor cursor, int size) {
+        return repository.findViewPageByUser(user, cursor, limitPageSize(size));
+    }
+
+    /**
+     * Получить страницу задач передаваемого пользователя из репозитория, отфильтрованных
+     * по передаваемому значению done. Задачи читаются проекцией, без загрузки сущностей
+     *
+     * @param user   Пользователь, которому принадлежат задачи
+     * @param done   Значение поля done для объектов Task (true -- для выполненных, false -- для невыполненных)
+     * @param cursor Курсор, указывающий на последнюю задачу предыдущей страницы. null -- для первой страницы
+     * @param size   Желаемое количество задач на странице. Ограничивается диапазоном [1, MAX_PAGE_SIZE]
+     * @return Страница представлений задач
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TaskView> findPageByUserAndDone(User user, boolean done, TaskCursor cursor, int size) {
+        return repository.findViewPageByUserAndDone(user, done, cursor, limitPageSize(size));
+    }
+
+    /**
+     * Получить страницу задач передаваемого пользователя из репозитория, удовлетворяющих фильтру.
+     * Фильтр применяется одним запросом к БД, задачи читаются проекцией, без загрузки сущностей
+     *
+     * @param user     Пользователь, которому принадлежат задачи
+     * @param userZone Часовой пояс пользователя, в котором заданы даты периода создания в фильтре
+     * @param filter   Фильтр задач
+     * @param sort   Порядок сортировки задач
+     * @param cursor Курсор, указывающий на последнюю задачу предыдущей страницы. null -- для первой страницы
+     * @param size   Желаемое количество задач на странице. Ограничивается диапазоном [1, MAX_PAGE_SIZE]
+     * @return Страница представлений задач
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TaskView> findPageByUser(User user, ZoneId userZone, TaskFilter filter,
+                                         TaskSort sort, TaskCursor cursor, int size) {
+        return repository.findViewPageByUser(user, userZone, filter, sort, cursor, limitPageSize(size));
+    }
+
+    /**
+     * Найти задачи передаваемого пользователя по словам из описания. Задачи упорядочиваются
+     * по релевантности, если БД поддерживает полнотекстовый поиск, иначе -- от новых к старым
+     *
+     * @param user   Пользователь, которому принадлежат задачи
+     * @param query  Строка поиска
+     * @param offset Количество пропускаемых задач. Отрицательное значение считается равным 0
+     * @param size   Желаемое количество задач на странице. Ограничивается диапазоном [1, MAX_PAGE_SIZE]
+     * @return Страница представлений задач. Курсор следующей страницы -- смещение следующей страницы
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TaskView> searchByUser(User user, String query, int offset, int size) {
+        return repository.searchViewPageByUser(user, query, Math.max(offset, 0), limitPageSize(size));
     }
 
     /**
@@ -89,25 +221,36 @@ public class SimpleTaskService implements TaskService {
      * Иначе -- Optional.empty()
      */
     @Override
+    @Transactional(readOnly = true)
     public Optional<Task> findById(int id) {
         return repository.findById(id);
     }
 
     /**
-     * Получить один объект Task из репозитория по id с учетом часового пояса
+     * Получить один объект Task из репозитория по id для формы редактирования:
+     * вместе с задачей загружаются приоритет и категории, пользователь не загружается
      *
-     * @param id     Уникальный идентификатор объекта Task
-     * @param zoneId Идентификатор часового пояса
+     * @param id Уникальный идентификатор объекта Task
      * @return Optional для объекта Task, если в репозитории существует объект для переданного id.
      * Иначе -- Optional.empty()
      */
     @Override
-    public Optional<Task> findById(int id, ZoneId zoneId) {
-        Optional<Task> task = findById(id);
-        task.ifPresent(foundTask -> foundTask.setCreated(
-                DateAdjustment.adjustByZoneId(foundTask.getCreated(), zoneId)
-        ));
-        return task;
+    @Transactional(readOnly = true)
+    public Optional<Task> findForEditById(int id) {
+        return repository.findById(id, TaskFetchPlan.EDIT);
+    }
+
+    /**
+     * Получить представление одной задачи из репозитория по id
+     *
+     * @param id Уникальный идентификатор объекта Task
+     * @return Optional для представления задачи, если в репозитории существует объект для переданного id.
+     * Иначе -- Optional.empty()
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<TaskView> findViewById(int id) {
+        return repository.findById(id, TaskFetchPlan.DETAIL).map(TaskView::of);
     }
 
     /**
@@ -120,7 +263,9 @@ public class SimpleTaskService implements TaskService {
     public Optional<Task> add(Task task) {
         task.setCreated(LocalDateTime.now());
         task.setDone(false);
-        return repository.add(task);
+        Optional<Task> result = repository.add(task);
+        result.ifPresent(added -> afterCommit(() -> suggestService.indexTask(added)));
+        return result;
     }
 
     /**
@@ -145,6 +290,24 @@ public class SimpleTaskService implements TaskService {
         return add(task);
     }
 
+    /**
+     * Добавить в репозиторий новые объекты из списка объектов Task. Объекты добавляются
+     * все вместе или не добавляется ни один. Признак выполнения задач сохраняется как есть
+     *
+     * @param tasks Список объектов Task, которые нужно добавить в репозиторий
+     * @return Optional списка объектов Task, если удалось добавить все объекты в репозиторий. Иначе -- Optional.empty()
+     */
+    @Override
+    public Optional<List<Task>> addAll(List<Task> tasks) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Task task : tasks) {
+            task.setCreated(now);
+        }
+        Optional<List<Task>> result = repository.addAll(tasks);
+        result.ifPresent(added -> afterCommit(() -> added.forEach(suggestService::indexTask)));
+        return result;
+    }
+
     /**
      * Обновить в репозитории объект, соответствующий передаваемому объекту Task
      *
@@ -152,8 +315,13 @@ public class SimpleTaskService implements TaskService {
      * @return true в случае успешного обновления. Иначе -- false
      */
     @Override
+    @Transactional
     public boolean update(Task task) {
-        return repository.update(task);
+        boolean result = repository.update(task);
+        if (result) {
+            afterCommit(() -> suggestService.reindexTask(task));
+        }
+        return result;
     }
 
     /**
@@ -168,12 +336,18 @@ public class SimpleTaskService implements TaskService {
      *                                  указан priorityId для несуществующего приоритета
      */
     @Override
+    @Transactional
     public boolean update(int id, String description, int priorityId, int[] categoryIds) {
         Optional<Priority> priority = priorityService.findById(priorityId);
         if (priority.isEmpty()) {
             throw new IllegalArgumentException(String.format("Приоритет #%d не существует", priorityId));
         }
-        return repository.update(id, description, priority.get(), categoryService.findAllByIds(categoryIds));
+        Set<Category> categories = categoryService.findAllByIds(categoryIds);
+        boolean result = repository.update(id, description, priority.get(), categories);
+        if (result) {
+            afterCommit(() -> suggestService.reindexTask(id, description, categories));
+        }
+        return result;
     }
 
     /**
@@ -183,8 +357,13 @@ public class SimpleTaskService implements TaskService {
      * @return true в случае успешного удаления. Иначе -- false
      */
     @Override
+    @Transactional
     public boolean delete(Task task) {
-        return repository.delete(task);
+        boolean result = repository.delete(task);
+        if (result) {
+            afterCommit(() -> suggestService.removeTask(task.getId()));
+        }
+        return result;
     }
 
     /**
@@ -194,8 +373,13 @@ public class SimpleTaskService implements TaskService {
      * @return true в случае успешного удаления. Иначе -- false
      */
     @Override
+    @Transactional
     public boolean deleteById(int id) {
-        return repository.deleteById(id);
+        boolean result = repository.deleteById(id);
+        if (result) {
+            afterCommit(() -> suggestService.removeTask(id));
+        }
+        return result;
     }
 
     /**
@@ -206,8 +390,13 @@ public class SimpleTaskService implements TaskService {
      * @return true в случае успешного обновления поля. Иначе -- false
      */
     @Override
+    @Transactional
     public boolean updateDescriptionById(int id, String description) {
-        return repository.setDescriptionById(id, description);
+        boolean result = repository.setDescriptionById(id, description);
+        if (result) {
+            afterCommit(() -> suggestService.reindexDescription(id, description));
+        }
+        return result;
     }
 
     /**
@@ -217,6 +406,7 @@ public class SimpleTaskService implements TaskService {
      * @return true в случае успешного обновления поля. Иначе -- false
      */
     @Override
+    @Transactional
     public boolean complete(Task task) {
         return repository.setDone(task, true);
     }
@@ -228,7 +418,39 @@ public class SimpleTaskService implements TaskService {
      * @return true в случае успешного обновления поля. Иначе -- false
      */
     @Override
+    @Transactional
     public boolean completeById(int id) {
         return repository.setDoneById(id, true);
     }
-}
\ No newline at end of file
+
+    /**
+     * Выполнить действие после фиксации текущей транзакции, чтобы индекс подсказок не получил
+     * изменений, которые будут отменены откатом. Вне транзакции действие выполняется сразу
+     *
+     * @param action Действие
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private int limitPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private static List<TaskView> toViews(List<Task> tasks) {
+        return tasks.stream().map(TaskView::of).collect(Collectors.toList());
+    }
+
+    private static Page<TaskView> toViews(Page<Task> page) {
+        return new Page<>(toViews(page.getItems()), page.getNextCursor());
+    }
+}
@@ -0,0 +1,212 @@
+package ru.job4j.todo.service;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.job4j.todo.dto.TaskSuggestion;
+import ru.job4j.todo.model.Category;
+import ru.job4j.todo.model.Task;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.repository.TaskRepository;
+import ru.job4j.todo.util.TaskIndex;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Сервис подсказок при вводе по словам описаний и названиям категорий задач.
+ * Поиск выполняется по инвертированному индексу в памяти процесса без обращения к БД.
+ * Индекс строится из БД при запуске приложения (до начала обработки запросов), затем
+ * поддерживается сервисом задач при каждом изменении задачи в этом процессе и, кроме того,
+ * перестраивается из БД каждые tasks.index.rebuild-interval-seconds: при нескольких экземплярах
+ * приложения с общей БД изменения, сделанные другими экземплярами, попадают в подсказки
+ * с этой задержкой. Новый индекс строится рядом со старым и заменяет его целиком, поэтому
+ * поиск во время перестроения работает по старому индексу; изменения этого процесса,
+ * сделанные во время перестроения, применяются и к новому индексу.
+ * Индекс хранит описания и слова задач всех пользователей и не ограничен по размеру: для описаний
+ * около 50 символов это примерно 1,2 КБ памяти на задачу (около 1,2 ГБ на миллион задач),
+ * а во время перестроения -- вдвое больше
+ */
+@Service
+@ThreadSafe
+public class SimpleTaskSuggestService implements TaskSuggestService, SmartInitializingSingleton {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SimpleTaskSuggestService.class);
+
+    private static final int MAX_LIMIT = 50;
+
+    private volatile TaskIndex index = new TaskIndex();
+
+    /**
+     * Изменения индекса, сделанные во время перестроения. null, если индекс не перестраивается
+     */
+    @GuardedBy("this")
+    private List<Consumer<TaskIndex>> pendingChanges;
+
+    private final Object rebuildLock = new Object();
+
+    private final TaskRepository repository;
+
+    private final int fetchSize;
+
+    public SimpleTaskSuggestService(
+            TaskRepository repository,
+            @Value("${tasks.index.fetch-size:1000}") int fetchSize
+    ) {
+        this.repository = repository;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Найти задачи пользователя, для каждого слова запроса содержащие слово с таким префиксом
+     *
+     * @param user  Пользователь, которому принадлежат задачи
+     * @param query Строка поиска
+     * @param limit Желаемое количество подсказок. Ограничивается диапазоном [1, MAX_LIMIT]
+     * @return Список подсказок от новых задач к старым. Пустой список, если ничего не найдено
+     */
+    @Override
+    public List<TaskSuggestion> suggest(User user, String query, int limit) {
+        return index.search(user.getId(), query, Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+
+    /**
+     * Построить индекс заново по всем задачам из репозитория и заменить им текущий индекс.
+     * Одновременно выполняется не более одного перестроения
+     */
+    @Override
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long start = System.currentTimeMillis();
+            synchronized (this) {
+                pendingChanges = new ArrayList<>();
+            }
+            TaskIndex rebuilt = new TaskIndex();
+            try {
+                repository.scrollTexts(
+                        fetchSize,
+                        text -> rebuilt.put(text.getId(), text.getUserId(), text.getDescription(), text.getCategoryNames())
+                );
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pendingChanges = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                pendingChanges.forEach(change -> change.accept(rebuilt));
+                pendingChanges = null;
+                index = rebuilt;
+            }
+            LOG.info("Индекс задач построен: {} задач за {} мс", rebuilt.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Периодически перестраивать индекс, чтобы учесть изменения задач, сделанные другими экземплярами
+     * приложения. Ошибка перестроения записывается в журнал, текущий индекс при этом сохраняется
+     */
+    @Scheduled(
+            initialDelayString = "${tasks.index.rebuild-interval-seconds:300}",
+            fixedDelayString = "${tasks.index.rebuild-interval-seconds:300}",
+            timeUnit = TimeUnit.SECONDS
+    )
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            LOG.warn("Не удалось перестроить индекс задач: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Добавить в индекс новую задачу. Пользователь и категории задачи должны быть загружены
+     *
+     * @param task Задача
+     */
+    @Override
+    public void indexTask(Task task) {
+        int userId = task.getUser().getId();
+        List<String> categoryNames = names(task.getCategories());
+        apply(index -> index.put(task.getId(), userId, task.getDescription(), categoryNames));
+    }
+
+    /**
+     * Обновить в индексе описание и категории задачи. Если категории задачи не загружены,
+     * обновляется только описание
+     *
+     * @param task Задача
+     */
+    @Override
+    public void reindexTask(Task task) {
+        if (Hibernate.isInitialized(task.getCategories())) {
+            reindexTask(task.getId(), task.getDescription(), task.getCategories());
+        } else {
+            reindexDescription(task.getId(), task.getDescription());
+        }
+    }
+
+    /**
+     * Обновить в индексе описание и категории задачи
+     *
+     * @param id          Идентификатор задачи
+     * @param description Новое описание задачи
+     * @param categories  Новые категории задачи
+     */
+    @Override
+    public void reindexTask(int id, String description, Collection<Category> categories) {
+        List<String> categoryNames = names(categories);
+        apply(index -> index.update(id, description, categoryNames));
+    }
+
+    /**
+     * Обновить в индексе описание задачи, сохранив ее категории
+     *
+     * @param id          Идентификатор задачи
+     * @param description Новое описание задачи
+     */
+    @Override
+    public void reindexDescription(int id, String description) {
+        apply(index -> index.updateDescription(id, description));
+    }
+
+    /**
+     * Удалить задачу из индекса
+     *
+     * @param id Идентификатор задачи
+     */
+    @Override
+    public void removeTask(int id) {
+        apply(index -> index.remove(id));
+    }
+
+    /**
+     * Применить изменение к текущему индексу и, если индекс перестраивается, запомнить его
+     * для применения к новому индексу
+     */
+    private synchronized void apply(Consumer<TaskIndex> change) {
+        change.accept(index);
+        if (pendingChanges != null) {
+            pendingChanges.add(change);
+        }
+    }
+
+    private static List<String> names(Collection<Category> categories) {
+        return categories.stream().map(Category::getName).collect(Collectors.toList());
+    }
+}
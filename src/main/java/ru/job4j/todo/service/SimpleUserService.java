@@ -1,24 +1,67 @@
 package ru.job4j.todo.service;
 
-import lombok.AllArgsConstructor;
+import net.jcip.annotations.GuardedBy;
 import net.jcip.annotations.ThreadSafe;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.job4j.todo.model.User;
 import ru.job4j.todo.repository.UserRepository;
+import ru.job4j.todo.util.ExpiringKeySet;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Сервис, осуществляющий доступ к данным объектов модели User в репозитории
  */
 @Service
 @ThreadSafe
-@AllArgsConstructor
 public class SimpleUserService implements UserService {
 
     private final UserRepository repository;
 
+    private final PasswordService passwordService;
+
+    /**
+     * Логины, которых не оказалось в репозитории при попытке входа. Повторные попытки входа
+     * под ними в течение security.login.unknown-ttl-seconds не обращаются к БД.
+     * Пользователя могут зарегистрировать другие экземпляры приложения, поэтому множество
+     * очищается, как только меняется наибольший id пользователя в БД (см. usersMaxId)
+     */
+    private final ExpiringKeySet unknownLogins;
+
+    private final long usersCheckNanos;
+
+    /**
+     * Наибольший id пользователя в БД при последней проверке. Логины пользователей не меняются,
+     * поэтому новый пользователь с любым логином увеличивает это значение
+     */
+    @GuardedBy("this")
+    private int usersMaxId;
+
+    /**
+     * Момент последней проверки usersMaxId (System.nanoTime())
+     */
+    @GuardedBy("this")
+    private long usersCheckedAt;
+
+    @GuardedBy("this")
+    private boolean usersChecked;
+
+    public SimpleUserService(
+            UserRepository repository,
+            PasswordService passwordService,
+            @Value("${security.login.unknown-ttl-seconds:30}") long unknownLoginTtl,
+            @Value("${security.login.unknown-max-size:10000}") int unknownLoginMaxSize,
+            @Value("${security.login.unknown-check-millis:1000}") long usersCheckMillis
+    ) {
+        this.repository = repository;
+        this.passwordService = passwordService;
+        this.unknownLogins = new ExpiringKeySet(unknownLoginTtl, TimeUnit.SECONDS, unknownLoginMaxSize);
+        this.usersCheckNanos = TimeUnit.MILLISECONDS.toNanos(usersCheckMillis);
+    }
+
     /**
      * Получить все объекты для модели User из репозитория
      *
@@ -54,16 +97,91 @@ public class SimpleUserService implements UserService {
     }
 
     /**
-     * Получить один объект User из репозитория по значениям полей login и password
+     * Получить один объект User из репозитория по логину и паролю. Пароль проверяется по хешу
+     * (см. PasswordService). Если хранимый хеш устарел (пароль хранится без хеширования или
+     * захеширован с меньшей стоимостью), он пересчитывается и сохраняется.
+     * Отсутствующие логины запоминаются на короткое время, чтобы не запрашивать их из БД повторно.
+     * Пользователь, зарегистрированный другим экземпляром приложения, сможет войти не позднее
+     * чем через security.login.unknown-check-millis после регистрации
      *
      * @param login Значение поля login объекта User
-     * @param password Значение поля password объекта User
+     * @param password Пароль пользователя
      * @return Optional для объекта User, если в репозитории существует объект для
-     * переданных значений полей login и password. Иначе -- Optional.empty()
+     * переданного значения поля login и пароль верен. Иначе -- Optional.empty()
+     * @throws java.util.concurrent.RejectedExecutionException Если проверка пароля невозможна из-за перегрузки
      */
     @Override
     public Optional<User> findByLoginAndPassword(String login, String password) {
-        return repository.findByLoginAndPassword(login, password);
+        Optional<User> user;
+        if (isKnownUnknown(login)) {
+            user = Optional.empty();
+        } else {
+            int checkedMaxId = checkedUsersMaxId();
+            user = repository.findByLogin(login);
+            if (user.isEmpty()) {
+                rememberUnknown(login, checkedMaxId);
+            }
+        }
+        String hash = user.map(User::getPassword).orElse(null);
+        if (!passwordService.matches(password, hash)) {
+            return Optional.empty();
+        }
+        if (passwordService.needsRehash(hash)) {
+            User userInDb = user.get();
+            userInDb.setPassword(passwordService.hash(password));
+            repository.update(userInDb);
+        }
+        return user;
+    }
+
+    /**
+     * Проверить, что логин недавно не был найден в репозитории и с тех пор пользователи не добавлялись.
+     * Наибольший id пользователя запрашивается из БД не чаще раза в security.login.unknown-check-millis
+     * на все логины; если он изменился, запомненные логины забываются
+     *
+     * @param login Логин пользователя
+     * @return true, если логин можно отклонить без обращения к БД. Иначе -- false
+     */
+    private boolean isKnownUnknown(String login) {
+        if (!unknownLogins.contains(login)) {
+            return false;
+        }
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (usersChecked && now - usersCheckedAt < usersCheckNanos) {
+                return true;
+            }
+            int maxId = repository.findMaxId();
+            boolean unchanged = usersChecked && maxId == usersMaxId;
+            if (!unchanged) {
+                unknownLogins.clear();
+            }
+            usersMaxId = maxId;
+            usersCheckedAt = now;
+            usersChecked = true;
+            return unchanged;
+        }
+    }
+
+    /**
+     * @return Наибольший id пользователя при последней проверке. -1, если проверки еще не было
+     */
+    private synchronized int checkedUsersMaxId() {
+        return usersChecked ? usersMaxId : -1;
+    }
+
+    /**
+     * Запомнить отсутствующий логин, если с момента перед его запросом из БД наибольший id
+     * пользователя не перепроверялся. Иначе пользователь с этим логином мог быть добавлен
+     * между запросом и проверкой, и запомненный логин не был бы забыт
+     *
+     * @param login Логин пользователя
+     * @param checkedMaxId Результат checkedUsersMaxId() перед запросом логина из БД
+     */
+    private synchronized void rememberUnknown(String login, int checkedMaxId) {
+        if (checkedUsersMaxId() == checkedMaxId) {
+            unknownLogins.add(login);
+        }
     }
 
     /**
@@ -74,18 +192,24 @@ public class SimpleUserService implements UserService {
      */
     @Override
     public Optional<User> add(User user) {
-        return repository.add(user);
+        Optional<User> result = repository.add(user);
+        result.ifPresent(added -> unknownLogins.remove(added.getLogin()));
+        return result;
     }
 
     /**
-     * Зарегистрировать нового пользователя в системе путем добавления нового объекта в репозиторий из объекта User
+     * Зарегистрировать нового пользователя в системе путем добавления нового объекта в репозиторий из объекта User.
+     * Пароль сохраняется в виде хеша
      *
      * @param user Объект User, который нужно добавить в репозиторий
      * @return Optional для объекта User, если удалось добавить этот объект в репозиторий. Иначе -- Optional.empty()
      */
     @Override
     public Optional<User> register(User user) {
-        return repository.add(user);
+        user.setPassword(passwordService.hash(user.getPassword()));
+        Optional<User> result = repository.add(user);
+        result.ifPresent(added -> unknownLogins.remove(added.getLogin()));
+        return result;
     }
 
     /**
@@ -96,6 +220,7 @@ public class SimpleUserService implements UserService {
      */
     @Override
     public boolean update(User user) {
+        unknownLogins.remove(user.getLogin());
         return repository.update(user);
     }
 
@@ -0,0 +1,13 @@
+package ru.job4j.todo.service;
+
+import java.util.List;
+import java.util.Map;
+
+public interface StatisticsService {
+
+    Map<String, Object> cacheStatistics();
+
+    Map<String, Object> poolStatistics();
+
+    List<Map<String, Object>> topQueries(int top);
+}
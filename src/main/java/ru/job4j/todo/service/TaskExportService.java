@@ -0,0 +1,11 @@
+package ru.job4j.todo.service;
+
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.transfer.TaskRecordWriter;
+
+import java.io.IOException;
+
+public interface TaskExportService {
+
+    void exportTasks(TaskRecordWriter writer, User user) throws IOException;
+}
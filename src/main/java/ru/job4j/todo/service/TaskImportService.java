@@ -0,0 +1,15 @@
+package ru.job4j.todo.service;
+
+import ru.job4j.todo.dto.ImportReport;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.transfer.TaskRecordReader;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+public interface TaskImportService {
+
+    ImportReport importTasks(TaskRecordReader reader, User user) throws IOException;
+
+    ImportReport importTasks(TaskRecordReader reader, User user, Consumer<ImportReport> progress) throws IOException;
+}
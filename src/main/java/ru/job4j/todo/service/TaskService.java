@@ -1,7 +1,12 @@
 package ru.job4j.todo.service;
 
+import ru.job4j.todo.dto.Page;
+import ru.job4j.todo.dto.TaskCursor;
+import ru.job4j.todo.dto.TaskFilter;
+import ru.job4j.todo.dto.TaskView;
 import ru.job4j.todo.model.Task;
 import ru.job4j.todo.model.User;
+import ru.job4j.todo.repository.TaskSort;
 
 import java.time.ZoneId;
 import java.util.List;
@@ -11,20 +16,40 @@ public interface TaskService {
 
     List<Task> findAll();
 
-    List<Task> findAll(ZoneId zoneId);
+    List<TaskView> findAllViews();
 
     List<Task> findAllByDone(boolean done);
 
-    List<Task> findAllByDone(boolean done, ZoneId zoneId);
+    List<TaskView> findAllViewsByDone(boolean done);
+
+    List<Task> findAllByUser(User user);
+
+    List<Task> findAllByUserAndDone(User user, boolean done);
+
+    Page<TaskView> findPage(TaskCursor cursor, int size);
+
+    Page<TaskView> findPageByDone(boolean done, TaskCursor cursor, int size);
+
+    Page<TaskView> findPageByUser(User user, TaskCursor cursor, int size);
+
+    Page<TaskView> findPageByUserAndDone(User user, boolean done, TaskCursor cursor, int size);
+
+    Page<TaskView> findPageByUser(User user, ZoneId userZone, TaskFilter filter, TaskSort sort, TaskCursor cursor, int size);
+
+    Page<TaskView> searchByUser(User user, String query, int offset, int size);
 
     Optional<Task> findById(int id);
 
-    Optional<Task> findById(int id, ZoneId zoneId);
+    Optional<Task> findForEditById(int id);
+
+    Optional<TaskView> findViewById(int id);
 
     Optional<Task> add(Task task);
 
     Optional<Task> add(Task task, int priorityId, int[] categoryIds, User user);
 
+    Optional<List<Task>> addAll(List<Task> tasks);
+
     boolean update(Task task);
 
     boolean update(int id, String description, int priorityId, int[] categoryIds);
@@ -0,0 +1,26 @@
+package ru.job4j.todo.service;
+
+import ru.job4j.todo.dto.TaskSuggestion;
+import ru.job4j.todo.model.Category;
+import ru.job4j.todo.model.Task;
+import ru.job4j.todo.model.User;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TaskSuggestService {
+
+    List<TaskSuggestion> suggest(User user, String query, int limit);
+
+    void rebuild();
+
+    void indexTask(Task task);
+
+    void reindexTask(Task task);
+
+    void reindexTask(int id, String description, Collection<Category> categories);
+
+    void reindexDescription(int id, String description);
+
+    void removeTask(int id);
+}
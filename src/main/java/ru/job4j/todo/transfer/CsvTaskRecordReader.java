@@ -0,0 +1,189 @@
+package ru.job4j.todo.transfer;
+
+import ru.job4j.todo.dto.TaskRecord;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Читатель записей TaskRecord в формате CSV. Первая строка -- заголовок с названиями колонок
+ * description, priority, categories, done (обязательны description и priority, порядок произвольный).
+ * Значения, содержащие запятые, кавычки или переводы строк, заключаются в двойные кавычки; кавычка
+ * внутри значения удваивается. Значение в кавычках может занимать несколько строк. Категории
+ * перечисляются через точку с запятой. Пустой приоритет означает задачу без приоритета
+ */
+public class CsvTaskRecordReader implements TaskRecordReader {
+
+    static final String DESCRIPTION = "description";
+    static final String PRIORITY = "priority";
+    static final String CATEGORIES = "categories";
+    static final String DONE = "done";
+
+    static final char SEPARATOR = ',';
+    static final char QUOTE = '"';
+    static final String CATEGORY_SEPARATOR = ";";
+
+    private static final int END = -1;
+
+    private final BufferedReader reader;
+
+    private Map<String, Integer> columns;
+
+    private int lineNumber;
+
+    public CsvTaskRecordReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public Optional<TaskRecord> next() throws IOException {
+        if (columns == null) {
+            readHeader();
+        }
+        List<String> values = readValues();
+        while (values != null && values.size() == 1 && values.get(0).isBlank()) {
+            values = readValues();
+        }
+        if (values == null) {
+            return Optional.empty();
+        }
+        String categories = value(values, CATEGORIES);
+        return Optional.of(new TaskRecord(
+                value(values, DESCRIPTION),
+                value(values, PRIORITY),
+                categories.isBlank() ? List.of() : Arrays.asList(categories.split(CATEGORY_SEPARATOR)),
+                Boolean.parseBoolean(value(values, DONE).trim())
+        ));
+    }
+
+    /**
+     * Получить номер последней прочитанной строки. Для записи, занимающей несколько строк, --
+     * номер ее последней строки
+     */
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Прочитать заголовок и определить номера колонок
+     *
+     * @throws IllegalStateException В случае, если в заголовке нет обязательных колонок.
+     *                               Остальные строки в этом случае прочитать нельзя
+     */
+    private void readHeader() throws IOException {
+        List<String> names = readValues();
+        columns = new HashMap<>();
+        if (names == null) {
+            return;
+        }
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(), i);
+        }
+        if (!columns.containsKey(DESCRIPTION) || !columns.containsKey(PRIORITY)) {
+            throw new IllegalStateException(String.format(
+                    "Заголовок CSV должен содержать колонки %s и %s", DESCRIPTION, PRIORITY
+            ));
+        }
+    }
+
+    private String value(List<String> values, String column) {
+        Integer index = columns.get(column);
+        return index == null || index >= values.size() ? "" : values.get(index);
+    }
+
+    /**
+     * Прочитать значения следующей записи CSV. Запись заканчивается переводом строки (\n, \r\n или \r)
+     * вне кавычек или концом данных
+     *
+     * @return Список значений. null, если данные закончились
+     * @throws IllegalArgumentException В случае, если кавычка не закрыта до конца данных или после
+     *                                  закрывающей кавычки нет разделителя. Во втором случае остаток
+     *                                  строки пропускается, и следующий вызов читает следующую строку
+     */
+    private List<String> readValues() throws IOException {
+        int c = reader.read();
+        if (c == END) {
+            return null;
+        }
+        lineNumber++;
+        List<String> values = new ArrayList<>();
+        while (true) {
+            StringBuilder value = new StringBuilder();
+            if (c == QUOTE) {
+                c = readQuoted(value);
+                if (c != SEPARATOR && !isLineEnd(c)) {
+                    skipLine(c);
+                    throw new IllegalArgumentException("После закрывающей кавычки ожидается разделитель");
+                }
+            } else {
+                while (c != SEPARATOR && !isLineEnd(c)) {
+                    value.append((char) c);
+                    c = reader.read();
+                }
+            }
+            values.add(value.toString());
+            if (c != SEPARATOR) {
+                skipLineEnd(c);
+                return values;
+            }
+            c = reader.read();
+        }
+    }
+
+    /**
+     * Прочитать значение в кавычках, начиная с символа после открывающей кавычки
+     *
+     * @param value Буфер, в который добавляется значение
+     * @return Символ, следующий за закрывающей кавычкой
+     * @throws IllegalArgumentException В случае, если кавычка не закрыта до конца данных
+     */
+    private int readQuoted(StringBuilder value) throws IOException {
+        int c = reader.read();
+        while (true) {
+            if (c == END) {
+                throw new IllegalArgumentException("Не закрыта кавычка");
+            }
+            if (c == QUOTE) {
+                c = reader.read();
+                if (c != QUOTE) {
+                    return c;
+                }
+            } else if (c == '\n') {
+                lineNumber++;
+            } else if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    lineNumber++;
+                }
+                reader.reset();
+            }
+            value.append((char) c);
+            c = reader.read();
+        }
+    }
+
+    private static boolean isLineEnd(int c) {
+        return c == END || c == '\n' || c == '\r';
+    }
+
+    private void skipLine(int c) throws IOException {
+        while (!isLineEnd(c)) {
+            c = reader.read();
+        }
+        skipLineEnd(c);
+    }
+
+    /**
+     * Пропустить перевод строки, если прочитанный символ -- \r, за которым следует \n
+     */
+    private void skipLineEnd(int c) throws IOException {
+        if (c == '\r') {
+            reader.mark(1);
+            if (reader.read() != '\n') {
+                reader.reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ru.job4j.todo.transfer;
+
+import ru.job4j.todo.dto.TaskRecord;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import static ru.job4j.todo.transfer.CsvTaskRecordReader.*;
+
+/**
+ * Писатель записей TaskRecord в формате CSV, который читает {@link CsvTaskRecordReader}.
+ * Перед первой записью выводится заголовок. Задача без приоритета записывается с пустым приоритетом
+ */
+public class CsvTaskRecordWriter implements TaskRecordWriter {
+
+    private static final String HEADER = String.join(
+            String.valueOf(SEPARATOR), List.of(DESCRIPTION, PRIORITY, CATEGORIES, DONE)
+    );
+
+    private final Writer writer;
+
+    private boolean headerWritten;
+
+    public CsvTaskRecordWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void write(TaskRecord record) throws IOException {
+        if (!headerWritten) {
+            writer.write(HEADER);
+            writer.write('\n');
+            headerWritten = true;
+        }
+        writer.write(quote(record.getDescription()));
+        writer.write(SEPARATOR);
+        writer.write(quote(record.getPriority()));
+        writer.write(SEPARATOR);
+        writer.write(quote(String.join(CATEGORY_SEPARATOR, record.getCategories())));
+        writer.write(SEPARATOR);
+        writer.write(String.valueOf(record.isDone()));
+        writer.write('\n');
+    }
+
+    /**
+     * Заключить значение в кавычки, если оно содержит разделитель, кавычку или перевод строки
+     *
+     * @param value Значение. null записывается как пустое значение
+     * @return Значение для записи в CSV
+     */
+    static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(SEPARATOR) < 0 && value.indexOf(QUOTE) < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        String quote = String.valueOf(QUOTE);
+        return quote + value.replace(quote, quote + quote) + quote;
+    }
+}
@@ -0,0 +1,71 @@
+package ru.job4j.todo.transfer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.job4j.todo.dto.TaskRecord;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Читатель записей TaskRecord в формате JSON Lines: одна задача -- один объект JSON в строке,
+ * напр. {"description": "...", "priority": "...", "categories": ["..."], "done": false}
+ */
+public class JsonLinesTaskRecordReader implements TaskRecordReader {
+
+    private final BufferedReader reader;
+
+    private final ObjectMapper objectMapper;
+
+    private int lineNumber;
+
+    public JsonLinesTaskRecordReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Optional<TaskRecord> next() throws IOException {
+        String line = nextLine();
+        while (line != null && line.isBlank()) {
+            line = nextLine();
+        }
+        if (line == null) {
+            return Optional.empty();
+        }
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Некорректный JSON");
+        }
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("Ожидается объект JSON");
+        }
+        List<String> categories = new ArrayList<>();
+        node.path("categories").forEach(category -> categories.add(category.asText()));
+        return Optional.of(new TaskRecord(
+                node.path("description").asText(""),
+                node.path("priority").asText(""),
+                categories,
+                node.path("done").asBoolean(false)
+        ));
+    }
+
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    private String nextLine() throws IOException {
+        String line = reader.readLine();
+        if (line != null) {
+            lineNumber++;
+        }
+        return line;
+    }
+}
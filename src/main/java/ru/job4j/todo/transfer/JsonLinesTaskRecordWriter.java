@@ -0,0 +1,34 @@
+package ru.job4j.todo.transfer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import ru.job4j.todo.dto.TaskRecord;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Писатель записей TaskRecord в формате JSON Lines, который читает {@link JsonLinesTaskRecordReader}
+ */
+public class JsonLinesTaskRecordWriter implements TaskRecordWriter {
+
+    private final Writer writer;
+
+    private final ObjectMapper objectMapper;
+
+    public JsonLinesTaskRecordWriter(Writer writer, ObjectMapper objectMapper) {
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void write(TaskRecord record) throws IOException {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("description", record.getDescription());
+        node.put("priority", record.getPriority());
+        record.getCategories().forEach(node.putArray("categories")::add);
+        node.put("done", record.isDone());
+        writer.write(objectMapper.writeValueAsString(node));
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,85 @@
+package ru.job4j.todo.transfer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Формат файла импорта/экспорта задач
+ */
+public enum TaskFormat {
+
+    CSV("text/csv", "csv"),
+    JSON_LINES("application/x-ndjson", "jsonl");
+
+    private final String contentType;
+
+    private final String extension;
+
+    TaskFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Получить формат по расширению файла
+     *
+     * @param extension Расширение файла без точки (csv, jsonl)
+     * @return Optional формата. Optional.empty(), если расширение не поддерживается
+     */
+    public static Optional<TaskFormat> ofExtension(String extension) {
+        return Arrays.stream(values())
+                .filter(format -> format.extension.equalsIgnoreCase(extension))
+                .findFirst();
+    }
+
+    /**
+     * Получить формат по типу содержимого запроса
+     *
+     * @param contentType Значение заголовка Content-Type (может содержать параметры, напр. charset)
+     * @return Optional формата. Optional.empty(), если тип содержимого не поддерживается
+     */
+    public static Optional<TaskFormat> ofContentType(String contentType) {
+        if (contentType == null) {
+            return Optional.empty();
+        }
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        return Arrays.stream(values())
+                .filter(format -> MediaType.parseMediaType(format.contentType).equalsTypeAndSubtype(mediaType))
+                .findFirst();
+    }
+
+    /**
+     * Получить построчный читатель записей в этом формате
+     *
+     * @param reader       Источник данных
+     * @param objectMapper Объект для разбора JSON
+     * @return Читатель записей
+     */
+    public TaskRecordReader reader(BufferedReader reader, ObjectMapper objectMapper) {
+        return this == CSV ? new CsvTaskRecordReader(reader) : new JsonLinesTaskRecordReader(reader, objectMapper);
+    }
+
+    /**
+     * Получить писателя записей в этом формате
+     *
+     * @param writer       Приемник данных
+     * @param objectMapper Объект для формирования JSON
+     * @return Писатель записей
+     */
+    public TaskRecordWriter writer(Writer writer, ObjectMapper objectMapper) {
+        return this == CSV ? new CsvTaskRecordWriter(writer) : new JsonLinesTaskRecordWriter(writer, objectMapper);
+    }
+}
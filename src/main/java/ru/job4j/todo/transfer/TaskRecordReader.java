@@ -0,0 +1,30 @@
+package ru.job4j.todo.transfer;
+
+import ru.job4j.todo.dto.TaskRecord;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Потоковый читатель записей TaskRecord. Данные читаются построчно и не загружаются в память целиком
+ */
+public interface TaskRecordReader {
+
+    /**
+     * Прочитать следующую запись
+     *
+     * @return Optional записи. Optional.empty(), если данные закончились
+     * @throws IOException              В случае ошибки чтения данных
+     * @throws IllegalArgumentException В случае, если очередная строка некорректна. Строка при этом
+     *                                  считается прочитанной, и чтение можно продолжить
+     * @throws IllegalStateException    В случае, если данные в целом имеют неверный формат
+     */
+    Optional<TaskRecord> next() throws IOException;
+
+    /**
+     * Получить номер последней прочитанной строки
+     *
+     * @return Номер строки, начиная с 1
+     */
+    int getLineNumber();
+}
@@ -0,0 +1,19 @@
+package ru.job4j.todo.transfer;
+
+import ru.job4j.todo.dto.TaskRecord;
+
+import java.io.IOException;
+
+/**
+ * Потоковый писатель записей TaskRecord. Каждая запись сразу передается в приемник данных
+ */
+public interface TaskRecordWriter {
+
+    /**
+     * Записать очередную запись
+     *
+     * @param record Запись
+     * @throws IOException В случае ошибки записи данных
+     */
+    void write(TaskRecord record) throws IOException;
+}
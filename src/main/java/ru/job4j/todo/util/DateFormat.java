@@ -1,15 +1,34 @@
 package ru.job4j.todo.util;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 public final class DateFormat {
 
     private static final String DEFAULT_FORMAT = "dd-MM-yyyy HH:mm";
 
-    public static Function<LocalDateTime, String> defaultFormatter() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DEFAULT_FORMAT);
-        return localDateTime -> localDateTime.format(formatter);
+    private static final DateTimeFormatter DEFAULT_FORMATTER = DateTimeFormatter.ofPattern(DEFAULT_FORMAT);
+
+    private static final Map<ZoneId, Function<Instant, String>> ZONE_FORMATTERS = new ConcurrentHashMap<>();
+
+    private DateFormat() {
+    }
+
+    /**
+     * Получить функцию, форматирующую момент времени в передаваемом часовом поясе.
+     * Функции создаются один раз для каждого часового пояса
+     *
+     * @param zoneId Часовой пояс пользователя
+     * @return Функция форматирования. Для null возвращает пустую строку
+     */
+    public static Function<Instant, String> forZone(ZoneId zoneId) {
+        return ZONE_FORMATTERS.computeIfAbsent(zoneId, zone -> {
+            DateTimeFormatter formatter = DEFAULT_FORMATTER.withZone(zone);
+            return instant -> instant == null ? "" : formatter.format(instant);
+        });
     }
-}
\ No newline at end of file
+}
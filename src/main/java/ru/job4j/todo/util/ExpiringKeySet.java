@@ -0,0 +1,92 @@
+package ru.job4j.todo.util;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Множество ключей, каждый из которых хранится ttl с момента добавления.
+ * Число ключей ограничено maxKeys: при переполнении вытесняются ключи, добавленные раньше всех
+ */
+@ThreadSafe
+public class ExpiringKeySet {
+
+    private final long ttlNanos;
+
+    private final int maxKeys;
+
+    private final LongSupplier clock;
+
+    /**
+     * Момент истечения (System.nanoTime()) по ключу в порядке добавления
+     */
+    @GuardedBy("this")
+    private final LinkedHashMap<String, Long> expiresAt = new LinkedHashMap<>();
+
+    public ExpiringKeySet(long ttl, TimeUnit unit, int maxKeys) {
+        this(ttl, unit, maxKeys, System::nanoTime);
+    }
+
+    public ExpiringKeySet(long ttl, TimeUnit unit, int maxKeys, LongSupplier clock) {
+        this.ttlNanos = unit.toNanos(ttl);
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+    }
+
+    /**
+     * Добавить ключ. Если ключ уже есть, срок его хранения отсчитывается заново
+     *
+     * @param key Ключ
+     */
+    public synchronized void add(String key) {
+        long now = clock.getAsLong();
+        removeExpired(now);
+        expiresAt.remove(key);
+        expiresAt.put(key, now + ttlNanos);
+        if (expiresAt.size() > maxKeys) {
+            Iterator<String> eldest = expiresAt.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Проверить, есть ли ключ, срок хранения которого не истек
+     *
+     * @param key Ключ
+     * @return true, если ключ есть. Иначе -- false
+     */
+    public synchronized boolean contains(String key) {
+        removeExpired(clock.getAsLong());
+        return expiresAt.containsKey(key);
+    }
+
+    /**
+     * Удалить ключ
+     *
+     * @param key Ключ
+     */
+    public synchronized void remove(String key) {
+        expiresAt.remove(key);
+    }
+
+    /**
+     * Удалить все ключи
+     */
+    public synchronized void clear() {
+        expiresAt.clear();
+    }
+
+    @GuardedBy("this")
+    private void removeExpired(long now) {
+        Iterator<Map.Entry<String, Long>> iterator = expiresAt.entrySet().iterator();
+        while (iterator.hasNext() && iterator.next().getValue() - now <= 0) {
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package ru.job4j.todo.util;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Исполнитель обработчиков запросов, обращающихся к БД. В асинхронном режиме обработчики выполняются
+ * в пуле из threads потоков (меньше пула соединений с БД) с очередью не длиннее queueCapacity,
+ * а поток сервлет-контейнера освобождается сразу: медленные запросы к БД ждут в очереди,
+ * не занимая потоки контейнера. В синхронном режиме обработчик выполняется в вызывающем потоке
+ */
+@ThreadSafe
+public class QueryExecutor implements AutoCloseable {
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Создать исполнитель, выполняющий обработчики в вызывающем потоке
+     */
+    public QueryExecutor() {
+        this.executor = null;
+    }
+
+    /**
+     * Создать исполнитель, выполняющий обработчики в отдельном пуле потоков
+     *
+     * @param threads       Количество потоков
+     * @param queueCapacity Максимальная длина очереди обработчиков
+     */
+    public QueryExecutor(int threads, int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "query-" + threadNumber.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * Выполнить обработчик
+     *
+     * @param handler Обработчик
+     * @param <T>     Тип результата
+     * @return Результат обработчика. В синхронном режиме -- уже завершенный
+     * @throws RejectedExecutionException Если очередь обработчиков заполнена
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> handler) {
+        if (executor == null) {
+            return CompletableFuture.completedFuture(handler.get());
+        }
+        return CompletableFuture.supplyAsync(handler, executor);
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
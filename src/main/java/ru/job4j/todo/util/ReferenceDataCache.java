@@ -0,0 +1,154 @@
+package ru.job4j.todo.util;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Кэш справочных данных, целиком загружающий небольшую таблицу в память процесса.
+ * Содержимое загружается при первом обращении и сбрасывается явным вызовом {@link #invalidate()}
+ * или по истечении ttl после загрузки. Явный сброс действует только на текущем узле приложения,
+ * поэтому изменения, сделанные на других узлах, становятся видны не позже чем через ttl.
+ * Загрузку выполняет один вызывающий поток, остальные ждут ее результата.
+ * Если таблица содержит больше maxSize записей, это запоминается до явного сброса: кэш не заполняется
+ * и таблица больше не загружается целиком, а вызывающий код должен обращаться к репозиторию напрямую
+ *
+ * @param <T> Тип объектов модели
+ */
+@ThreadSafe
+public class ReferenceDataCache<T> {
+
+    private final Supplier<List<T>> loader;
+
+    private final ToIntFunction<T> idFunction;
+
+    private final int maxSize;
+
+    private final long ttlNanos;
+
+    private final LongSupplier clock;
+
+    /**
+     * Захватывается на время загрузки, чтобы таблицу загружал только один поток
+     */
+    private final Object loadLock = new Object();
+
+    @GuardedBy("this")
+    private long version;
+
+    private volatile Snapshot<T> snapshot;
+
+    public ReferenceDataCache(Supplier<List<T>> loader, ToIntFunction<T> idFunction, int maxSize, long ttlSeconds) {
+        this(loader, idFunction, maxSize, ttlSeconds, System::nanoTime);
+    }
+
+    public ReferenceDataCache(
+            Supplier<List<T>> loader, ToIntFunction<T> idFunction, int maxSize, long ttlSeconds, LongSupplier clock
+    ) {
+        this.loader = loader;
+        this.idFunction = idFunction;
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.clock = clock;
+    }
+
+    /**
+     * Получить содержимое кэша, загрузив его при необходимости
+     *
+     * @return Неизменяемое отображение идентификаторов в объекты в порядке загрузки.
+     * Optional.empty(), если таблица превышает допустимый размер кэша
+     */
+    public Optional<Map<Integer, T>> entries() {
+        return Optional.ofNullable(snapshot().entries);
+    }
+
+    /**
+     * Получить все объекты таблицы: из кэша или, если таблица превышает допустимый размер кэша,
+     * из загрузчика. Если размер таблицы проверяется этим вызовом, она загружается один раз
+     *
+     * @return Список объектов в порядке загрузки
+     */
+    public List<T> values() {
+        Snapshot<T> current = snapshot();
+        if (current.entries != null) {
+            return new ArrayList<>(current.entries.values());
+        }
+        return current.rows != null ? current.rows : loader.get();
+    }
+
+    /**
+     * Сбросить содержимое кэша и признак превышения размера. Загрузка, начатая до сброса,
+     * не сохранит устаревшие данные
+     */
+    public synchronized void invalidate() {
+        version++;
+        snapshot = null;
+    }
+
+    /**
+     * Получить действующее содержимое кэша или загрузить его. Одновременно загрузку выполняет
+     * только один поток; потоки, ожидавшие ее, получают загруженное содержимое
+     *
+     * @return Содержимое кэша. Если загрузка обнаружила превышение размера, содержит загруженные записи
+     */
+    private Snapshot<T> snapshot() {
+        Snapshot<T> current = snapshot;
+        if (isValid(current)) {
+            return current;
+        }
+        synchronized (loadLock) {
+            current = snapshot;
+            if (isValid(current)) {
+                return current;
+            }
+            long loadVersion;
+            synchronized (this) {
+                loadVersion = version;
+            }
+            long now = clock.getAsLong();
+            List<T> loaded = loader.get();
+            Map<Integer, T> map = null;
+            if (loaded.size() <= maxSize) {
+                map = new LinkedHashMap<>();
+                for (T item : loaded) {
+                    map.put(idFunction.applyAsInt(item), item);
+                }
+                map = Collections.unmodifiableMap(map);
+            }
+            synchronized (this) {
+                if (version == loadVersion) {
+                    snapshot = new Snapshot<>(map, now, null);
+                }
+            }
+            return new Snapshot<>(map, now, map == null ? loaded : null);
+        }
+    }
+
+    private boolean isValid(Snapshot<T> current) {
+        return current != null && (current.entries == null || clock.getAsLong() - current.loadedAt < ttlNanos);
+    }
+
+    /**
+     * Загруженное содержимое кэша. entries == null, если таблица превышает допустимый размер кэша.
+     * rows -- записи, загруженные при обнаружении превышения; в кэше не хранятся
+     */
+    private static final class Snapshot<T> {
+
+        private final Map<Integer, T> entries;
+
+        private final long loadedAt;
+
+        private final List<T> rows;
+
+        private Snapshot(Map<Integer, T> entries, long loadedAt, List<T> rows) {
+            this.entries = entries;
+            this.loadedAt = loadedAt;
+            this.rows = rows;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ru.job4j.todo.util;
+
+import net.jcip.annotations.ThreadSafe;
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import ru.job4j.todo.dto.UserPrincipal;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.ZoneId;
+
+/**
+ * Сериализация атрибутов HTTP-сессии для внешнего хранилища сессий.
+ * Пользователь (UserPrincipal), который читается при каждом запросе, записывается компактно:
+ * идентификатор, логин, имя и часовой пояс без описаний классов Java-сериализации.
+ * Остальные атрибуты (например, flash-атрибуты) записываются Java-сериализацией
+ */
+@ThreadSafe
+public class SessionAttributeSerializer implements Serializer<Object>, Deserializer<Object> {
+
+    private static final int JAVA_SERIALIZATION = 0;
+
+    private static final int USER_PRINCIPAL = 1;
+
+    private final DefaultSerializer serializer = new DefaultSerializer();
+
+    private final DefaultDeserializer deserializer;
+
+    public SessionAttributeSerializer(ClassLoader classLoader) {
+        this.deserializer = new DefaultDeserializer(classLoader);
+    }
+
+    @Override
+    public void serialize(Object object, OutputStream outputStream) throws IOException {
+        if (object instanceof UserPrincipal) {
+            UserPrincipal principal = (UserPrincipal) object;
+            DataOutputStream out = new DataOutputStream(outputStream);
+            out.writeByte(USER_PRINCIPAL);
+            out.writeInt(principal.getId());
+            writeString(out, principal.getLogin());
+            writeString(out, principal.getName());
+            out.writeUTF(principal.getZoneId().getId());
+            out.flush();
+            return;
+        }
+        outputStream.write(JAVA_SERIALIZATION);
+        serializer.serialize(object, outputStream);
+    }
+
+    @Override
+    public Object deserialize(InputStream inputStream) throws IOException {
+        int type = inputStream.read();
+        if (type == USER_PRINCIPAL) {
+            DataInputStream in = new DataInputStream(inputStream);
+            return new UserPrincipal(in.readInt(), readString(in), readString(in), ZoneId.of(in.readUTF()));
+        }
+        if (type == JAVA_SERIALIZATION) {
+            return deserializer.deserialize(inputStream);
+        }
+        throw new IOException("Неизвестный формат атрибута сессии: " + type);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,333 @@
+package ru.job4j.todo.util;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import ru.job4j.todo.dto.TaskSuggestion;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс слов описаний и названий категорий задач в памяти процесса.
+ * Для каждого пользователя хранится упорядоченный словарь слов его задач, для каждого слова --
+ * отсортированный массив идентификаторов задач. Поиск выполняется по префиксам слов запроса:
+ * задача подходит, если для каждого слова запроса в ней есть слово с таким префиксом
+ */
+@ThreadSafe
+public class TaskIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @GuardedBy("lock")
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    @GuardedBy("lock")
+    private final Map<Integer, NavigableMap<String, PostingList>> termsByUser = new HashMap<>();
+
+    /**
+     * Добавить задачу в индекс. Если задача уже есть в индексе, она индексируется заново
+     *
+     * @param id            Идентификатор задачи
+     * @param userId        Идентификатор пользователя, которому принадлежит задача
+     * @param description   Описание задачи
+     * @param categoryNames Названия категорий задачи
+     */
+    public void put(int id, int userId, String description, Collection<String> categoryNames) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(id);
+            addEntry(id, new Entry(userId, description, List.copyOf(categoryNames)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Обновить описание и категории задачи. Задачи, отсутствующей в индексе, вызов не добавляет
+     *
+     * @param id            Идентификатор задачи
+     * @param description   Новое описание задачи
+     * @param categoryNames Новые названия категорий задачи
+     */
+    public void update(int id, String description, Collection<String> categoryNames) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = removeEntry(id);
+            if (entry != null) {
+                addEntry(id, new Entry(entry.userId, description, List.copyOf(categoryNames)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Обновить описание задачи, сохранив ее категории. Задачи, отсутствующей в индексе, вызов не добавляет
+     *
+     * @param id          Идентификатор задачи
+     * @param description Новое описание задачи
+     */
+    public void updateDescription(int id, String description) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = removeEntry(id);
+            if (entry != null) {
+                addEntry(id, new Entry(entry.userId, description, entry.categoryNames));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удалить задачу из индекса
+     *
+     * @param id Идентификатор задачи
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удалить из индекса все задачи
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            termsByUser.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Получить количество задач в индексе
+     *
+     * @return Количество задач
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Найти задачи пользователя, для каждого слова запроса содержащие слово с таким префиксом
+     *
+     * @param userId Идентификатор пользователя, которому принадлежат задачи
+     * @param query  Строка поиска
+     * @param limit  Максимальное количество результатов
+     * @return Список найденных задач от новых (с большим идентификатором) к старым.
+     * Пустой список, если ничего не найдено или запрос не содержит слов
+     */
+    public List<TaskSuggestion> search(int userId, String query, int limit) {
+        List<String> prefixes = terms(query);
+        if (prefixes.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            NavigableMap<String, PostingList> terms = termsByUser.get(userId);
+            if (terms == null) {
+                return List.of();
+            }
+            int[] ids = null;
+            for (String prefix : prefixes) {
+                int[] matches = union(terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values());
+                ids = ids == null ? matches : intersect(ids, matches);
+                if (ids.length == 0) {
+                    return List.of();
+                }
+            }
+            List<TaskSuggestion> result = new ArrayList<>(Math.min(limit, ids.length));
+            for (int i = ids.length - 1; i >= 0 && result.size() < limit; i--) {
+                result.add(new TaskSuggestion(ids[i], entries.get(ids[i]).description));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Разбить текст на слова в нижнем регистре. Словом считается последовательность букв и цифр
+     *
+     * @param text Текст
+     * @return Список уникальных слов в порядке появления. Пустой список для null
+     */
+    public static List<String> terms(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        Set<String> result = new LinkedHashSet<>();
+        for (String term : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!term.isEmpty()) {
+                result.add(term);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    @GuardedBy("lock")
+    private void addEntry(int id, Entry entry) {
+        entries.put(id, entry);
+        NavigableMap<String, PostingList> terms = termsByUser.computeIfAbsent(entry.userId, userId -> new TreeMap<>());
+        for (String term : entry.terms()) {
+            terms.computeIfAbsent(term, t -> new PostingList()).add(id);
+        }
+    }
+
+    @GuardedBy("lock")
+    private Entry removeEntry(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return null;
+        }
+        NavigableMap<String, PostingList> terms = termsByUser.get(entry.userId);
+        for (String term : entry.terms()) {
+            PostingList postings = terms.get(term);
+            if (postings != null && postings.remove(id) && postings.isEmpty()) {
+                terms.remove(term);
+            }
+        }
+        if (terms.isEmpty()) {
+            termsByUser.remove(entry.userId);
+        }
+        return entry;
+    }
+
+    /**
+     * Объединить отсортированные списки идентификаторов
+     */
+    private static int[] union(Collection<PostingList> postings) {
+        if (postings.size() == 1) {
+            return postings.iterator().next().toArray();
+        }
+        int total = 0;
+        for (PostingList posting : postings) {
+            total += posting.size;
+        }
+        int[] all = new int[total];
+        int offset = 0;
+        for (PostingList posting : postings) {
+            System.arraycopy(posting.ids, 0, all, offset, posting.size);
+            offset += posting.size;
+        }
+        Arrays.sort(all);
+        int size = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (size == 0 || all[size - 1] != all[i]) {
+                all[size++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, size);
+    }
+
+    /**
+     * Пересечь отсортированные массивы идентификаторов
+     */
+    private static int[] intersect(int[] left, int[] right) {
+        int[] result = new int[Math.min(left.length, right.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Индексируемые данные задачи
+     */
+    private static class Entry {
+
+        private final int userId;
+
+        private final String description;
+
+        private final List<String> categoryNames;
+
+        Entry(int userId, String description, List<String> categoryNames) {
+            this.userId = userId;
+            this.description = description;
+            this.categoryNames = categoryNames;
+        }
+
+        Set<String> terms() {
+            Set<String> result = new HashSet<>(TaskIndex.terms(description));
+            for (String categoryName : categoryNames) {
+                result.addAll(TaskIndex.terms(categoryName));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Отсортированный по возрастанию список идентификаторов задач без упаковки в Integer.
+     * Новые задачи получают большие идентификаторы, поэтому добавление обычно сводится к записи в конец
+     */
+    private static class PostingList {
+
+        private int[] ids = new int[4];
+
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int index = Arrays.binarySearch(ids, 0, size, id);
+                if (index >= 0) {
+                    return;
+                }
+                insert(-index - 1, id);
+            } else {
+                insert(size, id);
+            }
+        }
+
+        boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        private void insert(int index, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ru.job4j.todo.util;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограничитель частоты операций по ключу (логину, IP-адресу) по алгоритму «ведро токенов»:
+ * в ведре не больше capacity токенов, каждая операция расходует один токен, токены
+ * восстанавливаются равномерно со скоростью refillPerMinute в минуту.
+ * Для каждого ключа хранится одно число -- момент, когда ведро снова станет полным.
+ * Полные ведра не отличаются от отсутствующих и удаляются, а число хранимых ключей ограничено
+ * maxKeys: при переполнении вытесняются ключи, к которым дольше всего не обращались
+ */
+@ThreadSafe
+public class TokenBucketRateLimiter {
+
+    private final long capacityNanos;
+
+    private final long nanosPerToken;
+
+    private final int maxKeys;
+
+    private final LongSupplier clock;
+
+    /**
+     * Момент заполнения ведра (System.nanoTime()) по ключу в порядке обращений
+     */
+    @GuardedBy("this")
+    private final LinkedHashMap<String, Long> fullAt = new LinkedHashMap<>(16, 0.75f, true);
+
+    public TokenBucketRateLimiter(int capacity, int refillPerMinute, int maxKeys) {
+        this(capacity, refillPerMinute, maxKeys, System::nanoTime);
+    }
+
+    public TokenBucketRateLimiter(int capacity, int refillPerMinute, int maxKeys, LongSupplier clock) {
+        this.nanosPerToken = TimeUnit.MINUTES.toNanos(1) / refillPerMinute;
+        this.capacityNanos = nanosPerToken * capacity;
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+    }
+
+    /**
+     * Израсходовать токен для ключа
+     *
+     * @param key Ключ
+     * @return true, если токен есть и операция разрешена. Иначе -- false
+     */
+    public synchronized boolean tryAcquire(String key) {
+        long now = clock.getAsLong();
+        removeFull(now);
+        Long keyFullAt = fullAt.get(key);
+        long start = keyFullAt == null || keyFullAt - now < 0 ? now : keyFullAt;
+        if (start + nanosPerToken - now > capacityNanos) {
+            return false;
+        }
+        fullAt.put(key, start + nanosPerToken);
+        if (fullAt.size() > maxKeys) {
+            Iterator<String> eldest = fullAt.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+        return true;
+    }
+
+    /**
+     * Получить количество хранимых ключей
+     *
+     * @return Количество ключей, ведра которых не полны
+     */
+    public synchronized int size() {
+        removeFull(clock.getAsLong());
+        return fullAt.size();
+    }
+
+    /**
+     * Удалить полные ведра, начиная с ключей, к которым дольше всего не обращались,
+     * до первого неполного
+     */
+    @GuardedBy("this")
+    private void removeFull(long now) {
+        Iterator<Map.Entry<String, Long>> iterator = fullAt.entrySet().iterator();
+        while (iterator.hasNext() && iterator.next().getValue() - now <= 0) {
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ru.job4j.todo.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.service.UserService;
+import ru.job4j.todo.util.QueryExecutor;
+
+import javax.servlet.http.Cookie;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "session.store=jdbc",
+        "security.password.bcrypt-strength=4",
+        "tasks.async.enabled=true",
+        "tasks.async.threads=1",
+        "tasks.async.queue-capacity=1"
+})
+@AutoConfigureMockMvc
+public class TaskControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private QueryExecutor queryExecutor;
+
+    @Test
+    public void whenHandlerCompletesAsyncThenFlashAttributeStoredInSession() throws Exception {
+        Cookie session = login();
+        MvcResult complete = mockMvc.perform(patch("/tasks/{id}/complete", -1).cookie(session))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(complete))
+                .andExpect(redirectedUrl("/tasks"));
+        MvcResult index = mockMvc.perform(get("/tasks").cookie(session))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(index))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("errorMessage", "Не удалось обновить статус задачи"));
+    }
+
+    @Test
+    public void whenExecutorQueueFullThenServiceUnavailable() throws Exception {
+        Cookie session = login();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = queryExecutor.supply(() -> {
+            started.countDown();
+            return await(release);
+        });
+        started.await();
+        CompletableFuture<Boolean> queued = queryExecutor.supply(() -> true);
+        try {
+            mockMvc.perform(get("/tasks").cookie(session))
+                    .andExpect(request().asyncNotStarted())
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            release.countDown();
+        }
+        assertThat(running.get()).isTrue();
+        assertThat(queued.get()).isTrue();
+    }
+
+    /**
+     * Зарегистрировать нового пользователя и войти под ним
+     *
+     * @return Cookie HTTP-сессии пользователя
+     */
+    private Cookie login() throws Exception {
+        String value = "async" + System.nanoTime();
+        userService.register(new User(0, value, value, "secret", "UTC"));
+        Cookie session = mockMvc.perform(post("/login").param("login", value).param("password", "secret"))
+                .andExpect(redirectedUrl("/"))
+                .andReturn()
+                .getResponse()
+                .getCookie("SESSION");
+        assertThat(session).isNotNull();
+        return session;
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            latch.await();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
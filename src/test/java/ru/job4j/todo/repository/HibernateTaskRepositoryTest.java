@@ -1,15 +1,27 @@
 package ru.job4j.todo.repository;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import ru.job4j.todo.config.DataSourceConfig;
+import ru.job4j.todo.dto.Page;
+import ru.job4j.todo.dto.TaskCursor;
+import ru.job4j.todo.dto.TaskFilter;
+import ru.job4j.todo.dto.TaskRecord;
+import ru.job4j.todo.dto.TaskView;
+import ru.job4j.todo.model.Category;
+import ru.job4j.todo.model.Priority;
 import ru.job4j.todo.model.Task;
 import ru.job4j.todo.model.User;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.TimeZone;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -28,6 +40,9 @@ public class HibernateTaskRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CrudRepository crudRepository;
+
     @Test
     public void whenCreateTask() {
         String value = String.valueOf(System.currentTimeMillis());
@@ -150,4 +165,210 @@ public class HibernateTaskRepositoryTest {
         assertThat(task).isEqualTo(taskInDb);
         assertThat(done).isNotEqualTo(taskInDb.isDone());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void whenFindPageThenNewestFirstAndCursorPointsToNextPage() {
+        String value = String.valueOf(System.currentTimeMillis());
+        User user = new User(0, value, value, value, TimeZone.getDefault().toZoneId().toString());
+        userRepository.add(user);
+        LocalDateTime created = LocalDateTime.now();
+        Task first = new Task(0, "first", created, false, user, null, new HashSet<>());
+        Task second = new Task(0, "second", created, false, user, null, new HashSet<>());
+        Task third = new Task(0, "third", created.plusSeconds(1), false, user, null, new HashSet<>());
+        taskRepository.add(first);
+        taskRepository.add(second);
+        taskRepository.add(third);
+        Page<Task> firstPage = taskRepository.findPage(null, 2);
+        assertThat(firstPage.getItems()).containsExactly(third, second);
+        assertThat(firstPage.hasNext()).isTrue();
+        Page<Task> secondPage = taskRepository.findPage(TaskCursor.parse(firstPage.getNextCursor()), 1);
+        assertThat(secondPage.getItems()).containsExactly(first);
+    }
+
+    @Test
+    public void whenFindAllByUserAndDoneThenOnlyThatUserTasks() {
+        String value = String.valueOf(System.currentTimeMillis());
+        User user = new User(0, value, value, value, TimeZone.getDefault().toZoneId().toString());
+        User otherUser = new User(0, value, value + "_other", value, TimeZone.getDefault().toZoneId().toString());
+        userRepository.add(user);
+        userRepository.add(otherUser);
+        Task done = new Task(0, value, LocalDateTime.now(), true, user, null, new HashSet<>());
+        Task notDone = new Task(0, value, LocalDateTime.now(), false, user, null, new HashSet<>());
+        Task otherUserTask = new Task(0, value, LocalDateTime.now(), true, otherUser, null, new HashSet<>());
+        taskRepository.add(done);
+        taskRepository.add(notDone);
+        taskRepository.add(otherUserTask);
+        assertThat(taskRepository.findAllByUser(user)).containsExactlyInAnyOrder(done, notDone);
+        assertThat(taskRepository.findAllByUserAndDone(user, true)).containsExactly(done);
+        assertThat(taskRepository.findPageByUserAndDone(user, false, null, 10).getItems()).containsExactly(notDone);
+    }
+
+    @Test
+    public void whenAddAllThenEveryTaskSavedWithOwnId() {
+        String value = String.valueOf(System.currentTimeMillis());
+        User user = new User(0, value, value, value, TimeZone.getDefault().toZoneId().toString());
+        userRepository.add(user);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            tasks.add(new Task(0, value + i, LocalDateTime.now(), false, user, null, new HashSet<>()));
+        }
+        assertThat(taskRepository.addAll(tasks)).isPresent();
+        assertThat(tasks).extracting(Task::getId).doesNotHaveDuplicates().doesNotContain(0);
+        assertThat(taskRepository.findAllByUser(user)).containsExactlyInAnyOrderElementsOf(tasks);
+    }
+
+    @Test
+    public void whenScrollRecordsByUserThenOnlyThatUserTasksInCreationOrder() {
+        String value = String.valueOf(System.currentTimeMillis());
+        User user = new User(0, value, value, value, TimeZone.getDefault().toZoneId().toString());
+        User otherUser = new User(0, value, value + "_other", value, TimeZone.getDefault().toZoneId().toString());
+        userRepository.add(user);
+        userRepository.add(otherUser);
+        LocalDateTime now = LocalDateTime.now().minusMinutes(5);
+        taskRepository.add(new Task(0, "second", now, true, user, null, new HashSet<>()));
+        taskRepository.add(new Task(0, "first", now.minusMinutes(1), false, user, null, new HashSet<>()));
+        taskRepository.add(new Task(0, "third", now.plusMinutes(1), false, user, null, new HashSet<>()));
+        taskRepository.add(new Task(0, "other", now, false, otherUser, null, new HashSet<>()));
+        List<TaskRecord> records = new ArrayList<>();
+        taskRepository.scrollRecordsByUser(user, 2, records::add);
+        assertThat(records).containsExactly(
+                new TaskRecord("first", null, List.of(), false),
+                new TaskRecord("second", null, List.of(), true),
+                new TaskRecord("third", null, List.of(), false)
+        );
+    }
+
+    @Test
+    public void whenFindViewPageByUserAndDoneThenRowsWithoutEntities() {
+        String value = String.valueOf(System.currentTimeMillis());
+        User user = new User(0, value, value, value, TimeZone.getDefault().toZoneId().toString());
+        userRepository.add(user);
+        LocalDateTime now = LocalDateTime.now();
+        Task first = new Task(0, "first", now.minusMinutes(1), false, user, null, new HashSet<>());
+        Task second = new Task(0, "second", now, false, user, null, new HashSet<>());
+        taskRepository.add(first);
+        taskRepository.add(second);
+        taskRepository.add(new Task(0, "done", now, true, user, null, new HashSet<>()));
+        Page<TaskView> firstPage = taskRepository.findViewPageByUserAndDone(user, false, null, 1);
+        assertThat(firstPage.getItems()).extracting(TaskView::getId).containsExactly(second.getId());
+        assertThat(firstPage.getItems().get(0).getUserName()).isEqualTo(user.getName());
+        assertThat(firstPage.getItems().get(0).getCategoryNames()).isEmpty();
+        Page<TaskView> secondPage = taskRepository.findViewPageByUserAndDone(
+                user, false, TaskCursor.parse(firstPage.getNextCursor()), 1
+        );
+        assertThat(secondPage.getItems()).extracting(TaskView::getDescription).containsExactly("first");
+        assertThat(secondPage.hasNext()).isFalse();
+    }
+
+    @Test
+    public void whenFindByIdWithFetchPlanThenOnlyPlanAssociationsLoaded() {
+        String value = String.valueOf(System.currentTimeMillis());
+        User user = new User(0, value, value, value, TimeZone.getDefault().toZoneId().toString());
+        userRepository.add(user);
+        Task task = new Task(0, value, LocalDateTime.now(), false, user, null, new HashSet<>());
+        taskRepository.add(task);
+        Task detail = taskRepository.findById(task.getId(), TaskFetchPlan.DETAIL).orElseThrow();
+        assertThat(Hibernate.isInitialized(detail.getUser())).isTrue();
+        assertThat(Hibernate.isInitialized(detail.getCategories())).isTrue();
+        assertThat(detail.getUser().getName()).isEqualTo(user.getName());
+        Task edit = taskRepository.findById(task.getId(), TaskFetchPlan.EDIT).orElseThrow();
+        assertThat(Hibernate.isInitialized(edit.getUser())).isFalse();
+        assertThat(Hibernate.isInitialized(edit.getCategories())).isTrue();
+        List<Task> list = taskRepository.findAllByUser(user);
+        assertThat(list).hasSize(1);
+        assertThat(Hibernate.isInitialized(list.get(0).getUser())).isTrue();
+    }
+
+    @Test
+    public void whenSearchViewPageByUserThenOnlyTasksWithAllWords() {
+        String value = String.valueOf(System.currentTimeMillis());
+        User user = new User(0, value, value, value, TimeZone.getDefault().toZoneId().toString());
+        User otherUser = new User(0, value, value + "_other", value, TimeZone.getDefault().toZoneId().toString());
+        userRepository.add(user);
+        userRepository.add(otherUser);
+        LocalDateTime now = LocalDateTime.now();
+        Task older = new Task(0, "Купить молоко " + value, now.minusMinutes(1), false, user, null, new HashSet<>());
+        Task newer = new Task(0, "молоко и хлеб " + value, now, true, user, null, new HashSet<>());
+        taskRepository.add(older);
+        taskRepository.add(newer);
+        taskRepository.add(new Task(0, "Купить хлеб " + value, now, false, user, null, new HashSet<>()));
+        taskRepository.add(new Task(0, "Молоко " + value, now, false, otherUser, null, new HashSet<>()));
+        Page<TaskView> firstPage = taskRepository.searchViewPageByUser(user, "МОЛОКО " + value, 0, 1);
+        assertThat(firstPage.getItems()).extracting(TaskView::getId).containsExactly(newer.getId());
+        assertThat(firstPage.getNextCursor()).isEqualTo("1");
+        Page<TaskView> secondPage = taskRepository.searchViewPageByUser(user, "МОЛОКО " + value, 1, 1);
+        assertThat(secondPage.getItems()).extracting(TaskView::getId).containsExactly(older.getId());
+        assertThat(secondPage.hasNext()).isFalse();
+        assertThat(taskRepository.searchViewPageByUser(user, "  ", 0, 10).getItems()).isEmpty();
+        assertThat(taskRepository.searchViewPageByUser(user, "%", 0, 10).getItems()).isEmpty();
+    }
+
+    @Test
+    public void whenFindViewPageByUserWithFilterThenOnlyTasksMatchingAllCriteria() {
+        String value = String.valueOf(System.currentTimeMillis());
+        User user = new User(0, value, value, value, "UTC");
+        userRepository.add(user);
+        List<Priority> priorities = crudRepository.query("FROM Priority ORDER BY id", Priority.class);
+        List<Category> categories = crudRepository.query("FROM Category ORDER BY id", Category.class);
+        LocalDateTime created = LocalDate.of(2020, 5, 10).atStartOfDay(ZoneOffset.UTC)
+                .withZoneSameInstant(TaskView.STORAGE_ZONE).toLocalDateTime();
+        Task match = new Task(0, "Починить кран " + value, created, false, user, priorities.get(0),
+                new HashSet<>(Set.of(categories.get(0), categories.get(1))));
+        Task otherPriority = new Task(0, "Починить кран " + value, created, false, user, priorities.get(1),
+                new HashSet<>(Set.of(categories.get(0))));
+        Task otherCategory = new Task(0, "Починить кран " + value, created, false, user, priorities.get(0),
+                new HashSet<>(Set.of(categories.get(2))));
+        Task done = new Task(0, "Починить кран " + value, created, true, user, priorities.get(0),
+                new HashSet<>(Set.of(categories.get(0))));
+        Task otherText = new Task(0, "Купить молоко " + value, created, false, user, priorities.get(0),
+                new HashSet<>(Set.of(categories.get(0))));
+        Task otherDay = new Task(0, "Починить кран " + value, created.plusDays(1), false, user, priorities.get(0),
+                new HashSet<>(Set.of(categories.get(0))));
+        List.of(match, otherPriority, otherCategory, done, otherText, otherDay).forEach(taskRepository::add);
+        TaskFilter filter = new TaskFilter(
+                false,
+                Set.of(priorities.get(0).getId()),
+                Set.of(categories.get(0).getId(), categories.get(1).getId()),
+                LocalDate.of(2020, 5, 10),
+                LocalDate.of(2020, 5, 10),
+                "КРАН"
+        );
+        Page<TaskView> page = taskRepository.findViewPageByUser(user, ZoneOffset.UTC, filter, TaskSort.CREATED_DESC, null, 10);
+        assertThat(page.getItems()).extracting(TaskView::getId).containsExactly(match.getId());
+        assertThat(page.getItems().get(0).getCategoryNames()).hasSize(2);
+        assertThat(taskRepository.findViewPageByUser(user, ZoneOffset.UTC, new TaskFilter(), TaskSort.CREATED_DESC, null, 10)
+                .getItems()).hasSize(6);
+    }
+
+    @Test
+    public void whenFindViewPageByUserSortedByPriorityThenPagedByPriorityPosition() {
+        String value = String.valueOf(System.currentTimeMillis());
+        User user = new User(0, value, value, value, "UTC");
+        userRepository.add(user);
+        List<Priority> priorities = crudRepository.query("FROM Priority ORDER BY position", Priority.class);
+        LocalDateTime now = LocalDateTime.now().minusMinutes(5);
+        Task low = new Task(0, "low", now, false, user, priorities.get(1), new HashSet<>());
+        Task none = new Task(0, "none", now.plusMinutes(1), true, user, null, new HashSet<>());
+        Task highOld = new Task(0, "highOld", now.minusMinutes(1), true, user, priorities.get(0), new HashSet<>());
+        Task highNew = new Task(0, "highNew", now, false, user, priorities.get(0), new HashSet<>());
+        List.of(low, none, highOld, highNew).forEach(taskRepository::add);
+        List<String> descriptions = new ArrayList<>();
+        TaskCursor cursor = null;
+        do {
+            Page<TaskView> page = taskRepository.findViewPageByUser(user, ZoneOffset.UTC, new TaskFilter(), TaskSort.PRIORITY, cursor, 1);
+            page.getItems().forEach(view -> descriptions.add(view.getDescription()));
+            cursor = TaskCursor.parse(page.getNextCursor());
+        } while (cursor != null);
+        assertThat(descriptions).containsExactly("highNew", "highOld", "low", "none");
+        Page<TaskView> byDone = taskRepository.findViewPageByUser(user, ZoneOffset.UTC, new TaskFilter(), TaskSort.DONE, null, 3);
+        assertThat(byDone.getItems()).extracting(TaskView::getDescription).containsExactly("highNew", "low", "none");
+        Page<TaskView> byDoneNext = taskRepository.findViewPageByUser(
+                user, ZoneOffset.UTC, new TaskFilter(), TaskSort.DONE, TaskCursor.parse(byDone.getNextCursor()), 3
+        );
+        assertThat(byDoneNext.getItems()).extracting(TaskView::getDescription).containsExactly("highOld");
+        taskRepository.update(none.getId(), "none", priorities.get(0), new HashSet<>());
+        Page<TaskView> updated = taskRepository.findViewPageByUser(user, ZoneOffset.UTC, new TaskFilter(), TaskSort.PRIORITY, null, 4);
+        assertThat(updated.getItems()).extracting(TaskView::getDescription)
+                .containsExactly("none", "highNew", "highOld", "low");
+    }
+}
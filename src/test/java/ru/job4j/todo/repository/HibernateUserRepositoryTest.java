@@ -1,5 +1,7 @@
 package ru.job4j.todo.repository;
 
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -17,6 +19,9 @@ public class HibernateUserRepositoryTest {
     @Autowired
     private UserRepository repository;
 
+    @Autowired
+    private SessionFactory sf;
+
     @Test
     public void whenCreate() {
         String value = String.valueOf(System.currentTimeMillis());
@@ -99,4 +104,19 @@ public class HibernateUserRepositoryTest {
         Optional<User> duplicateResult = repository.add(duplicateUser);
         assertThat(duplicateResult.isEmpty()).isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void whenLoadedTwiceByIdThenSecondLevelCacheHit() {
+        String value = String.valueOf(System.currentTimeMillis());
+        User user = new User(0, value, value, value, TimeZone.getDefault().toZoneId().toString());
+        repository.add(user);
+        try (Session session = sf.openSession()) {
+            session.get(User.class, user.getId());
+        }
+        long hits = sf.getStatistics().getSecondLevelCacheHitCount();
+        try (Session session = sf.openSession()) {
+            session.get(User.class, user.getId());
+        }
+        assertThat(sf.getStatistics().getSecondLevelCacheHitCount()).isGreaterThan(hits);
+    }
+}
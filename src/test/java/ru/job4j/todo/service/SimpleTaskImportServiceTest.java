@@ -0,0 +1,58 @@
+package ru.job4j.todo.service;
+
+import org.junit.jupiter.api.Test;
+import ru.job4j.todo.dto.ImportReport;
+import ru.job4j.todo.model.Task;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.transfer.CsvTaskRecordReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SimpleTaskImportServiceTest {
+
+    @Test
+    public void whenRowsRejectedThenOtherRowsSavedInChunks() throws IOException {
+        TaskService taskService = mock(TaskService.class);
+        PriorityService priorityService = mock(PriorityService.class);
+        CategoryService categoryService = mock(CategoryService.class);
+        when(priorityService.findAll()).thenReturn(List.of());
+        when(categoryService.findAll()).thenReturn(List.of());
+        List<List<String>> saved = new ArrayList<>();
+        when(taskService.addAll(anyList())).thenAnswer(invocation -> {
+            List<Task> tasks = invocation.getArgument(0);
+            List<String> descriptions = tasks.stream().map(Task::getDescription).toList();
+            saved.add(descriptions);
+            return descriptions.contains("fail") ? Optional.empty() : Optional.of(tasks);
+        });
+        SimpleTaskImportService service = new SimpleTaskImportService(
+                taskService, priorityService, categoryService, 2
+        );
+        CsvTaskRecordReader reader = new CsvTaskRecordReader(new BufferedReader(new StringReader(
+                "description,priority\na,\nb,Нет\nc,\nfail,\nd,\ne,\n"
+        )));
+        List<Integer> progress = new ArrayList<>();
+        ImportReport report = service.importTasks(
+                reader, new User(), current -> progress.add(current.getImported())
+        );
+        assertThat(saved).containsExactly(List.of("a", "c"), List.of("fail", "d"), List.of("e"));
+        assertThat(report.getRead()).isEqualTo(6);
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getRejected()).isEqualTo(3);
+        assertThat(report.getChunks()).isEqualTo(3);
+        assertThat(report.getErrors()).containsExactly(
+                "Строка 3: Приоритет \"Нет\" не существует",
+                "Строки 5-6: не удалось сохранить пакет задач"
+        );
+        assertThat(progress).containsExactly(2, 2, 3);
+    }
+}
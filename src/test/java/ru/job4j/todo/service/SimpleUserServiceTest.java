@@ -0,0 +1,73 @@
+package ru.job4j.todo.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.job4j.todo.config.DataSourceConfig;
+import ru.job4j.todo.model.User;
+import ru.job4j.todo.repository.HibernateCrudRepository;
+import ru.job4j.todo.repository.HibernateUserRepository;
+import ru.job4j.todo.repository.UserRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        classes = {
+                DataSourceConfig.class,
+                HibernateCrudRepository.class,
+                HibernateUserRepository.class,
+                SimplePasswordService.class,
+                SimpleUserService.class
+        },
+        properties = {
+                "security.password.bcrypt-strength=4",
+                "security.login.unknown-check-millis=0"
+        }
+)
+public class SimpleUserServiceTest {
+
+    @Autowired
+    private UserService service;
+
+    @Autowired
+    private UserRepository repository;
+
+    @Test
+    public void whenRegisterThenPasswordHashedAndLoginChecksIt() {
+        String value = "hash" + System.nanoTime();
+        service.register(new User(0, value, value, "secret", "UTC"));
+        User userInDb = repository.findByLogin(value).orElseThrow();
+        assertThat(userInDb.getPassword()).startsWith("$2").isNotEqualTo("secret");
+        assertThat(service.findByLoginAndPassword(value, "secret")).contains(userInDb);
+        assertThat(service.findByLoginAndPassword(value, "wrong")).isEmpty();
+        assertThat(service.findByLoginAndPassword(value + "_unknown", "secret")).isEmpty();
+    }
+
+    @Test
+    public void whenLoginWithPlaintextPasswordThenRehashed() {
+        String value = "plain" + System.nanoTime();
+        repository.add(new User(0, value, value, "secret", "UTC"));
+        assertThat(service.findByLoginAndPassword(value, "wrong")).isEmpty();
+        assertThat(repository.findByLogin(value).orElseThrow().getPassword()).isEqualTo("secret");
+        assertThat(service.findByLoginAndPassword(value, "secret")).isPresent();
+        assertThat(repository.findByLogin(value).orElseThrow().getPassword()).startsWith("$2");
+        assertThat(service.findByLoginAndPassword(value, "secret")).isPresent();
+    }
+
+    @Test
+    public void whenUnknownLoginRegisteredThenLoginSucceeds() {
+        String value = "unknown" + System.nanoTime();
+        assertThat(service.findByLoginAndPassword(value, "secret")).isEmpty();
+        service.register(new User(0, value, value, "secret", "UTC"));
+        assertThat(service.findByLoginAndPassword(value, "secret")).isPresent();
+    }
+
+    @Test
+    public void whenUnknownLoginAddedByAnotherNodeThenLoginSucceeds() {
+        String value = "remote" + System.nanoTime();
+        assertThat(service.findByLoginAndPassword(value, "secret")).isEmpty();
+        assertThat(service.findByLoginAndPassword(value, "secret")).isEmpty();
+        repository.add(new User(0, value, value, "secret", "UTC"));
+        assertThat(service.findByLoginAndPassword(value, "secret")).isPresent();
+    }
+}
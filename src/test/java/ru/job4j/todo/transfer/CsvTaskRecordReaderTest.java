@@ -0,0 +1,91 @@
+package ru.job4j.todo.transfer;
+
+import org.junit.jupiter.api.Test;
+import ru.job4j.todo.dto.TaskRecord;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CsvTaskRecordReaderTest {
+
+    @Test
+    public void whenQuotedValuesThenSeparatorsAndQuotesKept() throws IOException {
+        CsvTaskRecordReader reader = new CsvTaskRecordReader(new BufferedReader(new StringReader(
+                "priority,description,categories,done\n"
+                        + "Высокий,\"Купить молоко, хлеб и \"\"сыр\"\"\",Дом;Магазин,true\n"
+        )));
+        assertThat(reader.next()).contains(new TaskRecord(
+                "Купить молоко, хлеб и \"сыр\"", "Высокий", List.of("Дом", "Магазин"), true
+        ));
+        assertThat(reader.next()).isEmpty();
+        assertThat(reader.getLineNumber()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenLineInvalidThenNextLineStillRead() throws IOException {
+        CsvTaskRecordReader reader = new CsvTaskRecordReader(new BufferedReader(new StringReader(
+                "description,priority\n\"broken\"x,Низкий\nok,Низкий\n"
+        )));
+        assertThatThrownBy(reader::next).isInstanceOf(IllegalArgumentException.class);
+        Optional<TaskRecord> record = reader.next();
+        assertThat(record).contains(new TaskRecord("ok", "Низкий", List.of(), false));
+        assertThat(reader.getLineNumber()).isEqualTo(3);
+    }
+
+    @Test
+    public void whenQuotedValueSpansLinesThenReadAsOneRecord() throws IOException {
+        CsvTaskRecordReader reader = new CsvTaskRecordReader(new BufferedReader(new StringReader(
+                "description,priority\r\n\"first\r\nsecond\nthird\",\r\nnext,Низкий"
+        )));
+        assertThat(reader.next()).contains(new TaskRecord("first\r\nsecond\nthird", "", List.of(), false));
+        assertThat(reader.getLineNumber()).isEqualTo(4);
+        assertThat(reader.next()).contains(new TaskRecord("next", "Низкий", List.of(), false));
+        assertThat(reader.getLineNumber()).isEqualTo(5);
+        assertThat(reader.next()).isEmpty();
+    }
+
+    @Test
+    public void whenQuoteNotClosedThenRestOfDataRejected() throws IOException {
+        CsvTaskRecordReader reader = new CsvTaskRecordReader(new BufferedReader(new StringReader(
+                "description,priority\n\"broken,Низкий\nok,Низкий\n"
+        )));
+        assertThatThrownBy(reader::next).isInstanceOf(IllegalArgumentException.class);
+        assertThat(reader.next()).isEmpty();
+    }
+
+    @Test
+    public void whenWrittenThenReadBackUnchanged() throws IOException {
+        List<TaskRecord> records = List.of(
+                new TaskRecord("Купить молоко, хлеб и \"сыр\"", "Высокий", List.of("Дом", "Магазин"), true),
+                new TaskRecord("Первая строка\nвторая строка\r\nтретья", "Низкий", List.of(), false),
+                new TaskRecord("Без приоритета", null, List.of("Дом"), false),
+                new TaskRecord("\"", null, List.of(), true)
+        );
+        StringWriter out = new StringWriter();
+        CsvTaskRecordWriter writer = new CsvTaskRecordWriter(out);
+        for (TaskRecord record : records) {
+            writer.write(record);
+        }
+        CsvTaskRecordReader reader = new CsvTaskRecordReader(new BufferedReader(new StringReader(out.toString())));
+        List<TaskRecord> read = new ArrayList<>();
+        Optional<TaskRecord> record = reader.next();
+        while (record.isPresent()) {
+            read.add(record.get());
+            record = reader.next();
+        }
+        assertThat(read).containsExactly(
+                records.get(0),
+                records.get(1),
+                new TaskRecord("Без приоритета", "", List.of("Дом"), false),
+                new TaskRecord("\"", "", List.of(), true)
+        );
+    }
+}
@@ -0,0 +1,107 @@
+package ru.job4j.todo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReferenceDataCacheTest {
+
+    @Test
+    public void whenEntriesRequestedTwiceThenLoadedOnce() {
+        AtomicInteger loads = new AtomicInteger();
+        ReferenceDataCache<Integer> cache = new ReferenceDataCache<>(() -> {
+            loads.incrementAndGet();
+            return List.of(1, 2, 3);
+        }, Integer::intValue, 10, 60);
+        cache.entries();
+        assertThat(cache.entries().orElseThrow()).containsOnlyKeys(1, 2, 3);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenInvalidatedThenReloaded() {
+        List<Integer> source = new ArrayList<>(List.of(1));
+        ReferenceDataCache<Integer> cache = new ReferenceDataCache<>(() -> List.copyOf(source), Integer::intValue, 10, 60);
+        assertThat(cache.entries().orElseThrow()).containsOnlyKeys(1);
+        source.add(2);
+        assertThat(cache.entries().orElseThrow()).containsOnlyKeys(1);
+        cache.invalidate();
+        assertThat(cache.entries().orElseThrow()).containsOnlyKeys(1, 2);
+    }
+
+    @Test
+    public void whenTableExceedsMaxSizeThenEmptyAndNotReloaded() {
+        AtomicLong clock = new AtomicLong();
+        AtomicInteger loads = new AtomicInteger();
+        ReferenceDataCache<Integer> cache = new ReferenceDataCache<>(() -> {
+            loads.incrementAndGet();
+            return List.of(1, 2, 3);
+        }, Integer::intValue, 2, 60, clock::get);
+        assertThat(cache.values()).containsExactly(1, 2, 3);
+        assertThat(loads.get()).isEqualTo(1);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(120));
+        assertThat(cache.entries()).isEmpty();
+        assertThat(loads.get()).isEqualTo(1);
+        cache.invalidate();
+        assertThat(cache.entries()).isEmpty();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenLoadInProgressThenOtherCallersWaitForIt() throws InterruptedException {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ReferenceDataCache<Integer> cache = new ReferenceDataCache<>(() -> {
+            loads.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of(1);
+        }, Integer::intValue, 10, 60);
+        AtomicReference<Optional<Map<Integer, Integer>>> first = new AtomicReference<>();
+        AtomicReference<Optional<Map<Integer, Integer>>> second = new AtomicReference<>();
+        Thread loading = new Thread(() -> first.set(cache.entries()));
+        loading.start();
+        started.await();
+        Thread waiting = new Thread(() -> second.set(cache.entries()));
+        waiting.start();
+        while (waiting.getState() != Thread.State.BLOCKED) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        loading.join();
+        waiting.join();
+        assertThat(first.get().orElseThrow()).containsOnlyKeys(1);
+        assertThat(second.get().orElseThrow()).containsOnlyKeys(1);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenTtlExpiredThenReloaded() {
+        AtomicLong clock = new AtomicLong();
+        List<Integer> source = new ArrayList<>(List.of(1));
+        ReferenceDataCache<Integer> cache = new ReferenceDataCache<>(
+                () -> List.copyOf(source), Integer::intValue, 10, 60, clock::get
+        );
+        assertThat(cache.entries().orElseThrow()).containsOnlyKeys(1);
+        source.add(2);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(59));
+        assertThat(cache.entries().orElseThrow()).containsOnlyKeys(1);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(cache.entries().orElseThrow()).containsOnlyKeys(1, 2);
+    }
+}
@@ -0,0 +1,44 @@
+package ru.job4j.todo.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.serializer.DefaultSerializer;
+import ru.job4j.todo.dto.UserPrincipal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SessionAttributeSerializerTest {
+
+    private final SessionAttributeSerializer serializer =
+            new SessionAttributeSerializer(getClass().getClassLoader());
+
+    @Test
+    public void whenSerializeUserPrincipalThenCompactAndRestored() throws IOException {
+        UserPrincipal principal = new UserPrincipal(7, "ivan", "Иван", ZoneId.of("Europe/Moscow"));
+        byte[] bytes = serialize(principal);
+        ByteArrayOutputStream java = new ByteArrayOutputStream();
+        new DefaultSerializer().serialize(principal, java);
+        assertThat(bytes.length).isLessThan(java.size() / 4);
+        assertThat(serializer.deserialize(new ByteArrayInputStream(bytes))).isEqualTo(principal);
+        UserPrincipal noName = new UserPrincipal(8, "petr", null, ZoneId.of("UTC"));
+        assertThat(serializer.deserialize(new ByteArrayInputStream(serialize(noName)))).isEqualTo(noName);
+    }
+
+    @Test
+    public void whenSerializeOtherAttributeThenJavaSerialization() throws IOException {
+        List<String> messages = new ArrayList<>(List.of("Задача удалена"));
+        assertThat(serializer.deserialize(new ByteArrayInputStream(serialize(messages)))).isEqualTo(messages);
+    }
+
+    private byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.serialize(value, out);
+        return out.toByteArray();
+    }
+}
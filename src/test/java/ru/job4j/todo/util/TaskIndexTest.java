@@ -0,0 +1,43 @@
+package ru.job4j.todo.util;
+
+import org.junit.jupiter.api.Test;
+import ru.job4j.todo.dto.TaskSuggestion;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TaskIndexTest {
+
+    @Test
+    public void whenSearchByPrefixesThenOnlyUserTasksWithAllWordsNewestFirst() {
+        TaskIndex index = new TaskIndex();
+        index.put(1, 10, "Купить молоко", List.of("Дом"));
+        index.put(3, 10, "Молоток и гвозди", List.of("Дом"));
+        index.put(2, 10, "Починить кран", List.of("Дом"));
+        index.put(4, 20, "Молоко", List.of("Дом"));
+        assertThat(index.search(10, "МОЛ", 10)).extracting(TaskSuggestion::getId).containsExactly(3, 1);
+        assertThat(index.search(10, "дом мол", 10)).extracting(TaskSuggestion::getId).containsExactly(3, 1);
+        assertThat(index.search(10, "дом", 2)).extracting(TaskSuggestion::getId).containsExactly(3, 2);
+        assertThat(index.search(10, "молоко кран", 10)).isEmpty();
+        assertThat(index.search(30, "мол", 10)).isEmpty();
+        assertThat(index.search(10, " ,.", 10)).isEmpty();
+    }
+
+    @Test
+    public void whenUpdatedAndRemovedThenSearchReflectsChanges() {
+        TaskIndex index = new TaskIndex();
+        index.put(1, 10, "Купить молоко", List.of("Дом"));
+        index.put(2, 10, "Починить кран", List.of());
+        index.updateDescription(1, "Купить хлеб");
+        assertThat(index.search(10, "молоко", 10)).isEmpty();
+        assertThat(index.search(10, "дом", 10)).containsExactly(new TaskSuggestion(1, "Купить хлеб"));
+        index.update(1, "Купить хлеб", List.of("Магазин"));
+        assertThat(index.search(10, "дом", 10)).isEmpty();
+        index.update(5, "Неизвестная задача", List.of());
+        assertThat(index.search(10, "неизв", 10)).isEmpty();
+        index.remove(2);
+        assertThat(index.search(10, "кран", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+}
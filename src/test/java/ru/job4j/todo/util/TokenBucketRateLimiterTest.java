@@ -0,0 +1,39 @@
+package ru.job4j.todo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void whenBucketEmptyThenDeniedUntilRefilled() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 6, 100, clock::get);
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isFalse();
+        assertThat(limiter.tryAcquire("b")).isTrue();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("a")).isFalse();
+    }
+
+    @Test
+    public void whenBucketsFullOrTooManyKeysThenKeysRemoved() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 60, 2, clock::get);
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("b")).isTrue();
+        assertThat(limiter.tryAcquire("c")).isTrue();
+        assertThat(limiter.size()).isEqualTo(2);
+        assertThat(limiter.tryAcquire("a")).isTrue();
+        assertThat(limiter.tryAcquire("c")).isFalse();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(limiter.size()).isZero();
+    }
+}